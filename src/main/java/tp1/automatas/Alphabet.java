@@ -1,38 +1,61 @@
 package tp1.automatas;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import tp1.utils.Tupla;
 
-import java.util.Iterator;
-
 
 /**
+ * Set of symbols stored as a bitmap over the char range, so membership is a
+ * single bit test without boxing. Symbols are also numbered densely in
+ * ascending order by indexOf, the numbering used by the table driven
+ * engines; it only changes when symbols are added or removed.
+ *
+ * An alphabet is not safe to change while other threads use it, but it may
+ * be read by any number of threads once it no longer changes: the sorted
+ * symbols are cached in an array filled before it is published through a
+ * volatile field.
+ *
  * @author Fernandez, Camilo
  * @author Manzetti, Mariano
  */
 public class Alphabet implements Iterable<Character> {
 
-	private Set<Character> symbols;
+	//bit c is set iff c is a symbol
+	private final BitSet symbols;
+
+	//true when null was added as a symbol
+	private boolean hasNull;
+
+	//symbols in ascending order, null until needed after a change
+	private volatile char[] sorted;
+
+	//number of changes so far, see modCount()
+	private int modCount;
 
 	public Alphabet() {
-		symbols = new HashSet<Character>();
+		symbols = new BitSet();
 	}
 
 	public Alphabet(Set<Character> symbols) {
-		Set<Character> alpha = new HashSet<Character>();
-		alpha.addAll(symbols);
-		this.symbols = alpha;
+		this();
+		for (Character c : symbols) {
+			addSymbol(c);
+		}
 	}
 
 	// Ver este clone
 	public Alphabet cloneAlpha() {
 		Alphabet a = new Alphabet();
-		for (Character c : symbols) {
-			a.addSymbol(c);
-		}
-		return (Alphabet) a;
+		a.symbols.or(symbols);
+		a.hasNull = hasNull;
+		return a;
 	}
 
 	/**
@@ -42,7 +65,18 @@ public class Alphabet implements Iterable<Character> {
 	 *
 	**/
 	public boolean addSymbol(Character c) {
-		return symbols.add(c);
+		if (c == null) {
+			boolean added = !hasNull;
+			hasNull = true;
+			modCount++;
+			return added;
+		}
+		if (symbols.get(c))
+			return false;
+		symbols.set(c);
+		sorted = null;
+		modCount++;
+		return true;
 	}
 
 	/**
@@ -51,7 +85,18 @@ public class Alphabet implements Iterable<Character> {
 	 * @return true if c was removed from the alphabet, false in other case
 	**/
 	public boolean removeSymbol(Character c) {
-		return symbols.remove(c);
+		if (c == null) {
+			boolean removed = hasNull;
+			hasNull = false;
+			modCount++;
+			return removed;
+		}
+		if (!symbols.get(c))
+			return false;
+		symbols.clear(c);
+		sorted = null;
+		modCount++;
+		return true;
 	}
 
 	/**
@@ -60,38 +105,160 @@ public class Alphabet implements Iterable<Character> {
 	 * @return true if c belongs to this alphabet
 	**/
 	public boolean belongsTo(Character c) {
-		return symbols.contains(c);
+		return contains(c);
 	}
 
+	/**
+	 * Adds the symbols of the given alphabet to this one.
+	 * @return a new alphabet with the symbols of both alphabets.
+	 */
 	public Alphabet union(Alphabet alphabet){
-		Set<Character> ret = this.symbols;
-		for (Character character : alphabet)
-			if (!ret.contains(character)) ret.add(character);
-		return new Alphabet(ret); 
+		for (Character c : alphabet) {
+			addSymbol(c);
+		}
+		return cloneAlpha();
 	}
 
+	/**
+	 * @return a view of the symbols of this alphabet, through which symbols
+	 * can also be added and removed.
+	 */
 	public Set<Character> getSet() {
-		return this.symbols;
+		return new AbstractSet<Character>() {
+			@Override
+			public Iterator<Character> iterator() {
+				return Alphabet.this.iterator();
+			}
+
+			@Override
+			public int size() {
+				return Alphabet.this.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return (o == null || o instanceof Character) && Alphabet.this.contains((Character) o);
+			}
+
+			@Override
+			public boolean add(Character c) {
+				return addSymbol(c);
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				return (o == null || o instanceof Character) && removeSymbol((Character) o);
+			}
+		};
+	}
+
+	/**
+	 * @return a value that changes whenever symbols are added or removed.
+	 */
+	int modCount() {
+		return modCount;
+	}
+
+	/**
+	 * @return number of symbols.
+	 */
+	public int size() {
+		return symbols.cardinality() + (hasNull ? 1 : 0);
 	}
 
 	@Override
 	public String toString() {
-		String str = "( ";
-		for (Character c : symbols) {
-			str += c + ", ";
+		StringBuilder str = new StringBuilder("( ");
+		for (Character c : this) {
+			str.append(c).append(", ");
 		}
-		return str + ")";
+		return str.append(")").toString();
 	}
 
 	public boolean contains(Character c) {
-		for (Character character : symbols)
-			if (character == c) return true;
-		return false;
+		return c == null ? hasNull : symbols.get(c);
+	}
+
+	public boolean contains(char c) {
+		return symbols.get(c);
 	}
 
+	/**
+	 * @return position of c among the symbols in ascending order, or -1
+	 * when c does not belong to the alphabet.
+	 */
+	public int indexOf(char c) {
+		if (!symbols.get(c))
+			return -1;
+		return Arrays.binarySearch(symbols(), c);
+	}
+
+	/**
+	 * @return the symbol at position i in ascending order.
+	 * @throws IndexOutOfBoundsException if there is no such symbol.
+	 */
+	public char symbolAt(int i) {
+		char[] all = symbols();
+		if (i < 0 || i >= all.length)
+			throw new IndexOutOfBoundsException("No symbol at " + i);
+		return all[i];
+	}
+
+	/**
+	 * @return the symbols in ascending order, null excluded. The array is
+	 * shared and must not be modified.
+	 */
+	char[] symbols() {
+		char[] all = sorted;
+		if (all == null) {
+			all = new char[symbols.cardinality()];
+			int n = 0;
+			for (int c = symbols.nextSetBit(0); c >= 0; c = symbols.nextSetBit(c + 1)) {
+				all[n++] = (char) c;
+			}
+			sorted = all;
+		}
+		return all;
+	}
+
+	/**
+	 * Iterates over null first, when it is a symbol, then over the other
+	 * symbols in ascending order, as they were when the iterator was
+	 * created. Removing through the iterator removes the symbol from the
+	 * alphabet.
+	 */
 	@Override
 	public Iterator<Character> iterator() {
-		return symbols.iterator();
+		final char[] all = symbols();
+		return new Iterator<Character>() {
+			private int next = hasNull ? -1 : 0;
+
+			//true when the last symbol returned can be removed
+			private boolean removable;
+
+			@Override
+			public boolean hasNext() {
+				return next < all.length;
+			}
+
+			@Override
+			public Character next() {
+				if (next >= all.length)
+					throw new NoSuchElementException();
+				int i = next++;
+				removable = true;
+				return i < 0 ? null : all[i];
+			}
+
+			@Override
+			public void remove() {
+				if (!removable)
+					throw new IllegalStateException();
+				removable = false;
+				int i = next - 1;
+				removeSymbol(i < 0 ? null : all[i]);
+			}
+		};
 	}
 
 	public DFA sigmaStar() throws AutomatonException {
@@ -111,4 +278,4 @@ public class Alphabet implements Iterable<Character> {
 		return new DFA(ss, this, transitions);
 	}
 
-}
\ No newline at end of file
+}
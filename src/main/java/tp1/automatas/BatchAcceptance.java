@@ -0,0 +1,131 @@
+package tp1.automatas;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Acceptance of many strings at once, split among worker threads.
+ *
+ * Every worker gets its own acceptor, so the scratch space of the
+ * simulation is never shared, and results are written to words of a
+ * single long[] that no two workers touch.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class BatchAcceptance {
+
+	//strings claimed by a worker at a time, a multiple of 64 so that chunks map to whole words
+	private static final int CHUNK = 64 * 64;
+
+	private BatchAcceptance() {
+	}
+
+	/**
+	 * @return the positions of the accepted strings of inputs.
+	 */
+	static BitSet acceptsAll(final Supplier<Predicate<CharSequence>> acceptors, List<? extends CharSequence> inputs,
+			ExecutorService executor) {
+		if (inputs == null) throw new IllegalArgumentException("Strings can't be null");
+		if (executor == null) throw new IllegalArgumentException("Executor can't be null");
+
+		final List<? extends CharSequence> strings = inputs instanceof RandomAccess
+				? inputs : new ArrayList<CharSequence>(inputs);
+		final int n = strings.size();
+		final long[] words = new long[(n + 63) >>> 6];
+		final int chunks = (n + CHUNK - 1) / CHUNK;
+		if (chunks <= 1) {
+			check(acceptors.get(), strings, 0, n, words);
+			return BitSet.valueOf(words);
+		}
+
+		final AtomicInteger nextChunk = new AtomicInteger();
+		int workers = Math.min(chunks, Runtime.getRuntime().availableProcessors());
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(workers);
+		for (int w = 0; w < workers; w++) {
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					Predicate<CharSequence> acceptor = acceptors.get();
+					for (int c = nextChunk.getAndIncrement(); c < chunks; c = nextChunk.getAndIncrement()) {
+						int from = c * CHUNK;
+						check(acceptor, strings, from, Math.min(n, from + CHUNK), words);
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> done : executor.invokeAll(tasks)) {
+				done.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while checking the strings", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		return BitSet.valueOf(words);
+	}
+
+	/**
+	 * @return the positions, in encounter order, of the accepted strings of
+	 * inputs.
+	 */
+	static BitSet acceptsAll(final Supplier<Predicate<CharSequence>> acceptors, Stream<? extends CharSequence> inputs) {
+		if (inputs == null) throw new IllegalArgumentException("Strings can't be null");
+
+		Collector<CharSequence, Results, BitSet> collector = Collector.of(
+				() -> new Results(acceptors.get()),
+				Results::add,
+				Results::append,
+				r -> r.accepted);
+		return inputs.collect(collector);
+	}
+
+	private static void check(Predicate<CharSequence> acceptor, List<? extends CharSequence> strings, int from, int to,
+			long[] words) {
+		for (int i = from; i < to; i++) {
+			if (acceptor.test(strings.get(i)))
+				words[i >>> 6] |= 1L << i;
+		}
+	}
+
+	// accepted positions among the strings of a segment of the stream
+	private static final class Results {
+		private final Predicate<CharSequence> acceptor;
+		private final BitSet accepted = new BitSet();
+		private int count;
+
+		Results(Predicate<CharSequence> acceptor) {
+			this.acceptor = acceptor;
+		}
+
+		void add(CharSequence input) {
+			if (acceptor.test(input))
+				accepted.set(count);
+			count++;
+		}
+
+		Results append(Results next) {
+			for (int i = next.accepted.nextSetBit(0); i >= 0; i = next.accepted.nextSetBit(i + 1)) {
+				accepted.set(count + i);
+			}
+			count += next.count;
+			return this;
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package tp1.automatas;
+
+/**
+ * Table driven step for compiled NFAs with few states, built from masks of
+ * successors indexed by a byte of the set of active states.
+ *
+ * The states are split into chunks of 8 and, for every chunk, column and
+ * byte value, the table holds the union of the successors, closed under
+ * lambda, of the states of the chunk whose bits are set in the byte. A
+ * step is then one lookup per chunk, extracting each byte of the current
+ * set with a shift and ORing the masks found, whatever the number of
+ * active states. With up to 64 states the whole set fits in a single long
+ * and a run allocates nothing.
+ *
+ * The table takes 256 * words bytes per state and column, that is 256
+ * bytes for up to 64 states and 1 KiB for 256. Since that can dwarf the
+ * compiled automaton, a table is only built when it fits in
+ * MIN_BUDGET plus LONGS_PER_CELL longs per state and column, and never in
+ * more than TABLE_BUDGET longs: at most 32 KiB plus 1 KiB per state and
+ * column, and 8 MiB overall. Past MAX_STATES states a table would take
+ * more than 1 KiB per state and column, so none is built.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class BitParallelNFA {
+
+	//largest automaton given a table, the most within LONGS_PER_CELL
+	static final int MAX_STATES = 256;
+
+	//maximum number of longs spent on the table
+	static final int TABLE_BUDGET = 1 << 20;
+
+	//longs any automaton may spend on the table
+	static final int MIN_BUDGET = 1 << 12;
+
+	//longs allowed per state and column beyond MIN_BUDGET
+	static final int LONGS_PER_CELL = 128;
+
+	private final CompiledNFA nfa;
+
+	private final int words;
+
+	//number of 8 state chunks
+	private final int chunks;
+
+	private final int width;
+
+	//successors of chunk k via column for byte b are masks[((k * width + column) * 256 + b) * words ..]
+	private final long[] masks;
+
+	//closure of the initial state, when it fits in a long
+	private final long start;
+
+	private BitParallelNFA(CompiledNFA nfa, int chunks) {
+		this.nfa = nfa;
+		this.words = nfa.words;
+		this.chunks = chunks;
+		this.width = nfa.width;
+		this.masks = new long[chunks * width * 256 * words];
+
+		int n = nfa.accepting.length;
+		int[] stack = nfa.newStack();
+		long[] set = new long[words];
+		for (int k = 0; k < chunks; k++) {
+			for (int column = 0; column < width; column++) {
+				int base = (k * width + column) * 256;
+				for (int b = 1; b < 256; b++) {
+					int low = Integer.numberOfTrailingZeros(b);
+					int s = (k << 3) + low;
+					int entry = (base + b) * words;
+					int rest = (base + (b & (b - 1))) * words;
+					for (int w = 0; w < words; w++) {
+						masks[entry + w] = masks[rest + w];
+					}
+					if (s < n && (b & (b - 1)) == 0) {
+						nfa.successors(s, column, set, stack);
+						System.arraycopy(set, 0, masks, entry, words);
+					} else if (s < n) {
+						int single = (base + (1 << low)) * words;
+						for (int w = 0; w < words; w++) {
+							masks[entry + w] |= masks[single + w];
+						}
+					}
+				}
+			}
+		}
+		nfa.start(set, stack);
+		this.start = set[0];
+	}
+
+	/**
+	 * @return the table for nfa, or null when it has too many states or
+	 * the table would not fit in the budget of its size.
+	 */
+	static BitParallelNFA of(CompiledNFA nfa) {
+		int n = nfa.accepting.length;
+		if (n == 0 || n > MAX_STATES)
+			return null;
+		int chunks = (n + 7) >>> 3;
+		if ((long) chunks * nfa.width * 256 * nfa.words > budget(n, nfa.width))
+			return null;
+		return new BitParallelNFA(nfa, chunks);
+	}
+
+	/**
+	 * @return number of longs a table may take for an automaton with n
+	 * states and width columns.
+	 */
+	static long budget(int n, int width) {
+		return Math.min(TABLE_BUDGET, MIN_BUDGET + (long) LONGS_PER_CELL * n * width);
+	}
+
+	/**
+	 * Computes in next the successors of current via column.
+	 * @return false iff next is empty.
+	 */
+	boolean step(long[] current, int column, long[] next) {
+		for (int w = 0; w < words; w++) {
+			next[w] = 0L;
+		}
+		int row = column * 256;
+		for (int k = 0; k < chunks; k++) {
+			int b = (int) (current[k >>> 3] >>> ((k & 7) << 3)) & 0xFF;
+			if (b != 0) {
+				int entry = ((k * width) * 256 + row + b) * words;
+				for (int w = 0; w < words; w++) {
+					next[w] |= masks[entry + w];
+				}
+			}
+		}
+		long any = 0L;
+		for (int w = 0; w < words; w++) {
+			any |= next[w];
+		}
+		return any != 0L;
+	}
+
+	/**
+	 * Runs the automaton over input keeping the set of states in a single
+	 * long. Only valid when the automaton has at most 64 states.
+	 */
+	boolean accepts(CharSequence input) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+
+		SymbolMap symbols = nfa.symbols;
+		long current = start;
+		int n = input.length();
+		for (int i = 0; i < n; i++) {
+			int column = symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			// once empty, the rest of the input is only checked
+			if (current == 0L)
+				continue;
+			long next = 0L;
+			int row = column * 256;
+			for (int k = 0; k < chunks; k++) {
+				int b = (int) (current >>> (k << 3)) & 0xFF;
+				if (b != 0)
+					next |= masks[k * width * 256 + row + b];
+			}
+			current = next;
+		}
+		return (current & nfa.acceptMask[0]) != 0L;
+	}
+}
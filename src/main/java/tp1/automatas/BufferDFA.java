@@ -0,0 +1,191 @@
+package tp1.automatas;
+
+import java.nio.ByteBuffer;
+
+/**
+ * DFA matched directly against a buffer holding its transition table, as
+ * laid out by DFAFile. The buffer is either a mapping of a file or a direct
+ * buffer built by CompiledDFA.toOffHeap, so the table stays off the heap
+ * and costs the garbage collector nothing however large it grows. Cells
+ * take one, two or four bytes depending on the number of states.
+ *
+ * Matching follows the same rules as CompiledDFA. The buffer is only read
+ * with absolute gets, so a BufferDFA can be shared between threads.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class BufferDFA implements FrozenFA {
+
+	final SymbolMap symbols;
+
+	//number of columns of the table
+	final int width;
+
+	private final int states;
+
+	final int initial;
+
+	final int dead;
+
+	//little endian file contents
+	private final ByteBuffer buffer;
+
+	//offset of the accepting bitset in buffer
+	private final int acceptOffset;
+
+	//offset of the first cell of the table in buffer
+	private final int tableOffset;
+
+	//size of a table cell in bytes: 1, 2 or 4
+	private final int cellBytes;
+
+	BufferDFA(SymbolMap symbols, int states, int initial, int dead, ByteBuffer buffer, int acceptOffset,
+			int tableOffset, int cellBytes) {
+		this.symbols = symbols;
+		this.width = symbols.width;
+		this.states = states;
+		this.initial = initial;
+		this.dead = dead;
+		this.buffer = buffer;
+		this.acceptOffset = acceptOffset;
+		this.tableOffset = tableOffset;
+		this.cellBytes = cellBytes;
+	}
+
+	/**
+	 * @return number of states, including the dead state.
+	 */
+	@Override
+	public int stateCount() {
+		return states;
+	}
+
+	/**
+	 * @return id of the initial state.
+	 */
+	public int initialState() {
+		return initial;
+	}
+
+	/**
+	 * @return id of the dead state, which is never left and never accepts.
+	 */
+	public int deadState() {
+		return dead;
+	}
+
+	/**
+	 * @return True iff state s is a final state.
+	 */
+	@Override
+	public boolean isAccepting(int s) {
+		return (buffer.getLong(acceptOffset + (s >>> 6) * 8) & (1L << s)) != 0;
+	}
+
+	/**
+	 * @return the successor of s via c, or -1 when c does not belong to the alphabet.
+	 */
+	public int step(int s, char c) {
+		int column = symbols.column(c);
+		if (column < 0)
+			return -1;
+		return next(s, column);
+	}
+
+	/**
+	 * @return the successor of s via column.
+	 */
+	int next(int s, int column) {
+		int cell = s * width + column;
+		switch (cellBytes) {
+		case 1:
+			return buffer.get(tableOffset + cell) & 0xFF;
+		case 2:
+			return buffer.getShort(tableOffset + cell * 2) & 0xFFFF;
+		default:
+			return buffer.getInt(tableOffset + cell * 4);
+		}
+	}
+
+	/**
+	 * @return size in bytes of a cell of the transition table.
+	 */
+	public int cellBytes() {
+		return cellBytes;
+	}
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton.
+	 *
+	 * @param input characters to be tested for acceptance.
+	 * @return true iff the automaton accepts input.
+	 */
+	@Override
+	public boolean accepts(CharSequence input) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+
+		int s = initial;
+		int n = input.length();
+		for (int i = 0; i < n; i++) {
+			int column = symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			if (s != dead)
+				s = next(s, column);
+		}
+		return isAccepting(s);
+	}
+
+	/**
+	 * @return a new matcher at the initial state, to be used by a single
+	 * thread.
+	 */
+	@Override
+	public Matcher matcher() {
+		return new Matcher() {
+			private int state = initial;
+
+			@Override
+			public void feed(char c) {
+				int column = symbols.column(c);
+				if (column < 0)
+					throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+				state = next(state, column);
+			}
+
+			@Override
+			public boolean isAccepting() {
+				return BufferDFA.this.isAccepting(state);
+			}
+
+			@Override
+			public boolean isDead() {
+				return state == dead;
+			}
+
+			@Override
+			public void reset() {
+				state = initial;
+			}
+		};
+	}
+
+	/**
+	 * Copies the automaton to the heap.
+	 * @return an equivalent compiled automaton without state names.
+	 */
+	public CompiledDFA toCompiledDFA() {
+		int[] table = new int[states * width];
+		for (int s = 0; s < states; s++) {
+			for (int column = 0; column < width; column++) {
+				table[s * width + column] = next(s, column);
+			}
+		}
+		boolean[] accepting = new boolean[states];
+		for (int s = 0; s < states; s++) {
+			accepting[s] = isAccepting(s);
+		}
+		return new CompiledDFA(symbols, initial, table, accepting, new String[states]);
+	}
+}
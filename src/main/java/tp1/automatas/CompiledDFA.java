@@ -0,0 +1,401 @@
+package tp1.automatas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import tp1.utils.Tupla;
+
+/**
+ * Immutable, table driven form of a DFA.
+ *
+ * States are dense ints and the transition function is a flat table with
+ * one row per state and one column per symbol. Missing transitions go to an
+ * explicit dead state (always the last one), so matching never has to deal
+ * with absent arcs.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class CompiledDFA implements FrozenFA {
+
+	final SymbolMap symbols;
+
+	//number of columns of the table
+	final int width;
+
+	final int initial;
+
+	//sink state, equal to stateCount() - 1
+	final int dead;
+
+	//table[s * width + column] is the successor of s
+	final int[] table;
+
+	final boolean[] accepting;
+
+	//original state names, null for states without one
+	final String[] names;
+
+	CompiledDFA(SymbolMap symbols, int initial, int[] table, boolean[] accepting, String[] names) {
+		this.symbols = symbols;
+		this.width = symbols.width;
+		this.initial = initial;
+		this.dead = accepting.length - 1;
+		this.table = table;
+		this.accepting = accepting;
+		this.names = names;
+	}
+
+	/**
+	 * Compiles the given automaton. States are numbered following the order
+	 * of dfa's state set, targets not in that set are appended after them.
+	 * Symbols with the same transitions share a column.
+	 */
+	static CompiledDFA of(DFA dfa) {
+		DFABuilder builder = new DFABuilder(SymbolMap.of(dfa.alphabet));
+		Map<String, Integer> ids = dfa.stateIds();
+		builder.addStates(ids.size());
+
+		for (State s : dfa.states) {
+			int id = ids.get(s.getName());
+			builder.setName(id, s.getName()).setFinal(id, s.isFinal());
+			if (s.isInitial())
+				builder.setInitial(id);
+		}
+		for (Map.Entry<State, HashMap<Character, StateSet>> arcs : dfa.delta.entrySet()) {
+			int from = ids.get(arcs.getKey().getName());
+			for (Map.Entry<Character, StateSet> arc : arcs.getValue().entrySet()) {
+				if (arc.getKey() == null || arc.getValue().size() == 0)
+					continue;
+				int symbol = builder.symbol(arc.getKey());
+				if (symbol < 0)
+					continue;
+				State to = arc.getValue().iterator().next();
+				int id = ids.get(to.getName());
+				if (dfa.states.belongTo(to.getName()) == null)
+					builder.setName(id, to.getName()).setFinal(id, to.isFinal());
+				builder.addTransition(from, symbol, id);
+			}
+		}
+		return builder.build().mergeSymbols();
+	}
+
+	/**
+	 * Computes the minimal automaton of the same language with Hopcroft's
+	 * algorithm. States are numbered canonically: the initial state is 0,
+	 * the rest follow in breadth first order taking symbols in ascending
+	 * order, and the dead state goes last. Hence two automata over the same
+	 * alphabet recognize the same language iff their minimizations are
+	 * equal. Symbols with the same transitions share a column.
+	 * @return the minimal DFA of the language.
+	 */
+	public CompiledDFA minimize() {
+		return Hopcroft.minimize(this).mergeSymbols();
+	}
+
+	/**
+	 * Groups the symbols into classes of symbols leading every state to the
+	 * same successor, as lexer generators do, and gives every class a single
+	 * column. Automata whose symbols mostly behave alike, such as digits or
+	 * letters, get a table many times narrower.
+	 * @return an equal automaton with one column per class, or this one when
+	 * no two columns are equal.
+	 */
+	public CompiledDFA mergeSymbols() {
+		int n = stateCount();
+		int[] classOf = new int[width];
+		Arrays.fill(classOf, -1);
+		//column holding the transitions of every class
+		int[] representative = new int[width];
+		int classes = 0;
+		Map<Integer, List<Integer>> byHash = new HashMap<Integer, List<Integer>>();
+
+		// classes are numbered by their lowest symbol, keeping minimize canonical
+		for (int i = 0; i < symbols.symbols.length; i++) {
+			int column = symbols.columnAt(i);
+			if (classOf[column] >= 0)
+				continue;
+			int hash = 1;
+			for (int s = 0; s < n; s++) {
+				hash = 31 * hash + table[s * width + column];
+			}
+			List<Integer> candidates = byHash.get(hash);
+			if (candidates == null) {
+				candidates = new ArrayList<Integer>(1);
+				byHash.put(hash, candidates);
+			}
+			for (int k : candidates) {
+				if (sameColumn(representative[k], column)) {
+					classOf[column] = k;
+					break;
+				}
+			}
+			if (classOf[column] < 0) {
+				representative[classes] = column;
+				classOf[column] = classes;
+				candidates.add(classes++);
+			}
+		}
+		if (classes == width)
+			return this;
+
+		int[] merged = new int[n * classes];
+		for (int s = 0; s < n; s++) {
+			for (int k = 0; k < classes; k++) {
+				merged[s * classes + k] = table[s * width + representative[k]];
+			}
+		}
+		int[] columnOfSymbol = new int[symbols.symbols.length];
+		for (int i = 0; i < columnOfSymbol.length; i++) {
+			columnOfSymbol[i] = classOf[symbols.columnAt(i)];
+		}
+		return new CompiledDFA(new SymbolMap(symbols.symbols, columnOfSymbol, classes), initial, merged,
+				accepting, names);
+	}
+
+	private boolean sameColumn(int a, int b) {
+		for (int s = 0, n = stateCount(); s < n; s++) {
+			if (table[s * width + a] != table[s * width + b])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The operations below build the product of both automata over the
+	 * union of their alphabets in a single pass, exploring only reachable
+	 * pairs of states.
+	 * @return a DFA accepting the strings accepted by this or by other.
+	 */
+	public CompiledDFA union(CompiledDFA other) {
+		return Product.of(this, other, Product.UNION);
+	}
+
+	/**
+	 * @return a DFA accepting the strings accepted by both this and other.
+	 */
+	public CompiledDFA intersection(CompiledDFA other) {
+		return Product.of(this, other, Product.INTERSECTION);
+	}
+
+	/**
+	 * @return a DFA accepting the strings accepted by this but not by other.
+	 */
+	public CompiledDFA difference(CompiledDFA other) {
+		return Product.of(this, other, Product.DIFFERENCE);
+	}
+
+	/**
+	 * @return a DFA accepting the strings accepted by exactly one of this and other.
+	 */
+	public CompiledDFA symmetricDifference(CompiledDFA other) {
+		return Product.of(this, other, Product.SYMMETRIC_DIFFERENCE);
+	}
+
+	/**
+	 * Builds the object representation of this automaton. Every state but
+	 * the dead one becomes a state named "q" followed by its id, and arcs
+	 * into the dead state are left out.
+	 * @return a DFA recognizing the same language.
+	 * @throws AutomatonException
+	 */
+	public DFA toDFA() throws AutomatonException {
+		StateSet ss = new StateSet();
+		State[] states = new State[dead];
+		for (int s = 0; s < dead; s++) {
+			states[s] = ss.addState("q" + s, s == initial, accepting[s]);
+		}
+
+		Alphabet a = new Alphabet();
+		for (char c : symbols.symbols) {
+			a.addSymbol(c);
+		}
+
+		Set<Tupla<State, Character, State>> t = new HashSet<Tupla<State, Character, State>>();
+		for (int s = 0; s < dead; s++) {
+			for (int i = 0; i < symbols.symbols.length; i++) {
+				int to = table[s * width + symbols.columnAt(i)];
+				if (to != dead)
+					t.add(new Tupla<State, Character, State>(states[s], symbols.symbols[i], states[to]));
+			}
+		}
+		return new DFA(ss, a, t);
+	}
+
+	/**
+	 * @return number of states, including the dead state.
+	 */
+	@Override
+	public int stateCount() {
+		return accepting.length;
+	}
+
+	/**
+	 * @return id of the initial state.
+	 */
+	public int initialState() {
+		return initial;
+	}
+
+	/**
+	 * @return id of the dead state, which is never left and never accepts.
+	 */
+	public int deadState() {
+		return dead;
+	}
+
+	/**
+	 * @return True iff state s is a final state.
+	 */
+	@Override
+	public boolean isAccepting(int s) {
+		return accepting[s];
+	}
+
+	/**
+	 * @return name of state s in the automaton it was compiled from, or null.
+	 */
+	public String stateName(int s) {
+		return names[s];
+	}
+
+	/**
+	 * @return the successor of s via c, or -1 when c does not belong to the alphabet.
+	 */
+	public int step(int s, char c) {
+		int column = symbols.column(c);
+		if (column < 0)
+			return -1;
+		return table[s * width + column];
+	}
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton.
+	 * Runs without allocating and stops stepping as soon as the dead state
+	 * is reached, though the rest of the input is still checked against the
+	 * alphabet.
+	 *
+	 * @param input characters to be tested for acceptance.
+	 * @return true iff the automaton accepts input.
+	 */
+	@Override
+	public boolean accepts(CharSequence input) {
+		return accepting[run(input)];
+	}
+
+	/**
+	 * Runs the automaton over input.
+	 * @return the state reached, the dead state as soon as it is entered.
+	 */
+	int run(CharSequence input) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+
+		int s = initial;
+		int n = input.length();
+		for (int i = 0; i < n; i++) {
+			int column = symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			s = table[s * width + column];
+			if (s == dead) {
+				for (i++; i < n; i++) {
+					if (symbols.column(input.charAt(i)) < 0)
+						throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+				}
+				return dead;
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * @return a new matcher at the initial state, to be used by a single
+	 * thread.
+	 */
+	@Override
+	public Matcher matcher() {
+		return new DFAMatcher(this);
+	}
+
+	/**
+	 * Copies the automaton to a direct buffer outside the heap, with table
+	 * cells as narrow as the number of states allows. This automaton can be
+	 * dropped afterwards, leaving nothing for the garbage collector to trace.
+	 * @return an equivalent automaton without state names.
+	 * @throws IllegalArgumentException if the table takes more than 2 GB.
+	 */
+	public BufferDFA toOffHeap() {
+		return DFAFile.toBuffer(this);
+	}
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton,
+	 * splitting long inputs into chunks that are run on the threads of the
+	 * common ForkJoinPool. Inputs shorter than a few hundred thousand
+	 * characters are run sequentially.
+	 *
+	 * @param input characters to be tested for acceptance.
+	 * @return true iff the automaton accepts input.
+	 */
+	public boolean acceptsParallel(CharSequence input) {
+		return acceptsParallel(input, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Like acceptsParallel(input), running the chunks on executor.
+	 */
+	public boolean acceptsParallel(CharSequence input, ExecutorService executor) {
+		return ParallelMatch.accepts(this, input, executor);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(symbols.symbols);
+		result = prime * result + initial;
+		for (int s = 0; s < accepting.length; s++) {
+			for (int i = 0; i < symbols.symbols.length; i++) {
+				result = prime * result + table[s * width + symbols.columnAt(i)];
+			}
+		}
+		result = prime * result + Arrays.hashCode(accepting);
+		return result;
+	}
+
+	/**
+	 * Two compiled automata are equal when they have the same alphabet, the
+	 * same initial state, the same final states and the same transitions,
+	 * regardless of state names and of how symbols are grouped in columns.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CompiledDFA other = (CompiledDFA) obj;
+		if (initial != other.initial)
+			return false;
+		if (!Arrays.equals(symbols.symbols, other.symbols.symbols) || !Arrays.equals(accepting, other.accepting))
+			return false;
+		for (int i = 0; i < symbols.symbols.length; i++) {
+			int column = symbols.columnAt(i);
+			int otherColumn = other.symbols.columnAt(i);
+			for (int s = 0; s < accepting.length; s++) {
+				if (table[s * width + column] != other.table[s * other.width + otherColumn])
+					return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,568 @@
+package tp1.automatas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, array based form of a nondeterministic automaton.
+ *
+ * States are dense ints and the successors of every (state, symbol) pair
+ * are stored contiguously in a single array. Acceptance is decided by
+ * advancing the whole set of active states one character at a time, so its
+ * cost is linear in the input length no matter how many paths the
+ * automaton has.
+ *
+ * Lambda arcs are resolved through closures computed once, when the
+ * automaton is compiled: lambda cycles are collapsed into strongly
+ * connected components and each component gets its closure as a bitset.
+ * Every set of active states is kept closed under lambda, so the simulation
+ * never follows lambda arcs one by one. When the closure table would not
+ * fit in CLOSURE_BUDGET longs, closures are expanded during the simulation
+ * instead, still visiting each state at most once per step.
+ *
+ * Automata with at most BitParallelNFA.MAX_STATES states may also get a
+ * table of successor masks, and step the whole set a byte of states at a
+ * time. The table is built by the first run, only when its size is within
+ * the budget set by BitParallelNFA for the size of the automaton, and then
+ * every run steps through it: up to 64 states the set is kept in a single
+ * long, beyond that in the buffers of the simulation.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class CompiledNFA implements FrozenFA {
+
+	//maximum number of longs spent on precomputed closures
+	static final int CLOSURE_BUDGET = 1 << 21;
+
+	final SymbolMap symbols;
+
+	//number of symbol columns
+	final int width;
+
+	//-1 when the automaton has no initial state
+	final int initial;
+
+	//number of longs needed for a set of states
+	final int words;
+
+	final boolean[] accepting;
+
+	//final states as a bitset
+	final long[] acceptMask;
+
+	//successors of s via column are targets[offsets[s * width + column] .. offsets[s * width + column + 1]]
+	final int[] offsets;
+
+	final int[] targets;
+
+	//lambda successors of s are lambdaTargets[lambdaOffsets[s] .. lambdaOffsets[s + 1]], null without lambda arcs
+	final int[] lambdaOffsets;
+
+	final int[] lambdaTargets;
+
+	//strongly connected component of every state under lambda arcs
+	final int[] component;
+
+	//closure of component c is closures[c * words .. (c + 1) * words], null when not precomputed
+	final long[] closures;
+
+	final String[] names;
+
+	//table driven step, built by the first run, null when over budget
+	volatile BitParallelNFA bitParallel;
+
+	//true once building bitParallel was attempted
+	private volatile boolean bitParallelTried;
+
+	CompiledNFA(SymbolMap symbols, int initial, boolean[] accepting, int[] offsets, int[] targets,
+			int[] lambdaOffsets, int[] lambdaTargets, String[] names) {
+		this.symbols = symbols;
+		this.width = symbols.width;
+		this.initial = initial;
+		this.words = (accepting.length + 63) >>> 6;
+		this.accepting = accepting;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.lambdaOffsets = lambdaOffsets;
+		this.lambdaTargets = lambdaTargets;
+		this.names = names;
+		if (lambdaOffsets == null) {
+			this.component = null;
+			this.closures = null;
+		} else {
+			this.component = components();
+			this.closures = closures();
+		}
+		this.acceptMask = new long[words];
+		for (int s = 0; s < accepting.length; s++) {
+			if (accepting[s])
+				acceptMask[s >>> 6] |= 1L << s;
+		}
+	}
+
+	/**
+	 * Compiles the given automaton, lambda arcs included. States are numbered
+	 * following the order of fa's state set.
+	 */
+	static CompiledNFA of(FA fa) {
+		NFABuilder builder = new NFABuilder(SymbolMap.of(fa.alphabet));
+		Map<String, Integer> ids = fa.stateIds();
+		builder.addStates(ids.size());
+
+		for (State s : fa.states) {
+			int id = ids.get(s.getName());
+			builder.setName(id, s.getName()).setFinal(id, s.isFinal());
+			if (s.isInitial())
+				builder.setInitial(id);
+		}
+		for (Map.Entry<State, HashMap<Character, StateSet>> arcs : fa.delta.entrySet()) {
+			int from = ids.get(arcs.getKey().getName());
+			for (Map.Entry<Character, StateSet> arc : arcs.getValue().entrySet()) {
+				int symbol = NFABuilder.LAMBDA;
+				if (arc.getKey() != null) {
+					symbol = builder.symbol(arc.getKey());
+					if (symbol < 0)
+						continue;
+				}
+				for (State to : arc.getValue()) {
+					int id = ids.get(to.getName());
+					if (fa.states.belongTo(to.getName()) == null)
+						builder.setName(id, to.getName()).setFinal(id, to.isFinal());
+					builder.addTransition(from, symbol, id);
+				}
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Tarjan's algorithm over the lambda arcs, run with an explicit stack.
+	 * Components are numbered in reverse topological order, so every lambda
+	 * arc leaving a component goes to a lower numbered one.
+	 * @return the component of every state.
+	 */
+	private int[] components() {
+		int n = accepting.length;
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] component = new int[n];
+		boolean[] onStack = new boolean[n];
+		int[] stack = new int[n];
+		int[] calls = new int[n];
+		int[] arc = new int[n];
+		int sp = 0;
+		int counter = 0;
+		int components = 0;
+
+		Arrays.fill(index, -1);
+		for (int root = 0; root < n; root++) {
+			if (index[root] >= 0)
+				continue;
+			int csp = 0;
+			index[root] = low[root] = counter++;
+			stack[sp++] = root;
+			onStack[root] = true;
+			calls[csp++] = root;
+			arc[root] = lambdaOffsets[root];
+
+			while (csp > 0) {
+				int v = calls[csp - 1];
+				if (arc[v] < lambdaOffsets[v + 1]) {
+					int w = lambdaTargets[arc[v]++];
+					if (index[w] < 0) {
+						index[w] = low[w] = counter++;
+						stack[sp++] = w;
+						onStack[w] = true;
+						calls[csp++] = w;
+						arc[w] = lambdaOffsets[w];
+					} else if (onStack[w]) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+					continue;
+				}
+				csp--;
+				if (csp > 0) {
+					int u = calls[csp - 1];
+					low[u] = Math.min(low[u], low[v]);
+				}
+				if (low[v] == index[v]) {
+					int w;
+					do {
+						w = stack[--sp];
+						onStack[w] = false;
+						component[w] = components;
+					} while (w != v);
+					components++;
+				}
+			}
+		}
+		return component;
+	}
+
+	/**
+	 * Computes the closure of every component, reusing the closures of the
+	 * components it reaches.
+	 * @return the closure table, or null when it exceeds CLOSURE_BUDGET.
+	 */
+	private long[] closures() {
+		int n = accepting.length;
+		int count = 0;
+		for (int s = 0; s < n; s++) {
+			count = Math.max(count, component[s] + 1);
+		}
+		if ((long) count * words > CLOSURE_BUDGET)
+			return null;
+
+		// groups states by component
+		int[] start = new int[count + 1];
+		for (int s = 0; s < n; s++) {
+			start[component[s] + 1]++;
+		}
+		for (int c = 1; c <= count; c++) {
+			start[c] += start[c - 1];
+		}
+		int[] members = new int[n];
+		int[] fill = Arrays.copyOf(start, count);
+		for (int s = 0; s < n; s++) {
+			members[fill[component[s]]++] = s;
+		}
+
+		long[] closures = new long[count * words];
+		for (int c = 0; c < count; c++) {
+			int base = c * words;
+			for (int m = start[c]; m < start[c + 1]; m++) {
+				int s = members[m];
+				closures[base + (s >>> 6)] |= 1L << s;
+				for (int i = lambdaOffsets[s]; i < lambdaOffsets[s + 1]; i++) {
+					int other = component[lambdaTargets[i]];
+					if (other != c) {
+						int from = other * words;
+						for (int w = 0; w < words; w++) {
+							closures[base + w] |= closures[from + w];
+						}
+					}
+				}
+			}
+		}
+		return closures;
+	}
+
+	/**
+	 * @return number of states.
+	 */
+	@Override
+	public int stateCount() {
+		return accepting.length;
+	}
+
+	/**
+	 * @return id of the initial state, or -1 if there is none.
+	 */
+	public int initialState() {
+		return initial;
+	}
+
+	/**
+	 * @return True iff state s is a final state.
+	 */
+	@Override
+	public boolean isAccepting(int s) {
+		return accepting[s];
+	}
+
+	/**
+	 * @return name of state s in the automaton it was compiled from.
+	 */
+	public String stateName(int s) {
+		return names[s];
+	}
+
+	/**
+	 * The successors of s via c are arcTarget(i) for every arc i in
+	 * [arcStart(s, c), arcEnd(s, c)), an empty range when there are none
+	 * or c does not belong to the alphabet. Iterating allocates nothing.
+	 * @return first arc of s via c.
+	 */
+	public int arcStart(int s, char c) {
+		int column = symbols.column(c);
+		return column < 0 ? 0 : offsets[s * width + column];
+	}
+
+	/**
+	 * @return end, exclusive, of the arcs of s via c.
+	 */
+	public int arcEnd(int s, char c) {
+		int column = symbols.column(c);
+		return column < 0 ? 0 : offsets[s * width + column + 1];
+	}
+
+	/**
+	 * @return target of arc i.
+	 */
+	public int arcTarget(int i) {
+		return targets[i];
+	}
+
+	/**
+	 * The lambda successors of s are lambdaTarget(i) for every i in
+	 * [lambdaStart(s), lambdaEnd(s)), an empty range when there are none.
+	 * @return first lambda arc of s.
+	 */
+	public int lambdaStart(int s) {
+		return lambdaOffsets == null ? 0 : lambdaOffsets[s];
+	}
+
+	/**
+	 * @return end, exclusive, of the lambda arcs of s.
+	 */
+	public int lambdaEnd(int s) {
+		return lambdaOffsets == null ? 0 : lambdaOffsets[s + 1];
+	}
+
+	/**
+	 * @return target of lambda arc i.
+	 */
+	public int lambdaTarget(int i) {
+		return lambdaTargets[i];
+	}
+
+	/**
+	 * @return the table driven step, built on the first call, or null when
+	 * the automaton gets none. Threads racing on the first call may each
+	 * build a table, any of which is fine to keep.
+	 */
+	BitParallelNFA bitParallel() {
+		BitParallelNFA table = bitParallel;
+		if (table == null && !bitParallelTried) {
+			table = BitParallelNFA.of(this);
+			bitParallel = table;
+			bitParallelTried = true;
+		}
+		return table;
+	}
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton.
+	 *
+	 * @param input characters to be tested for acceptance.
+	 * @return true iff the automaton accepts input.
+	 */
+	@Override
+	public boolean accepts(CharSequence input) {
+		BitParallelNFA table = bitParallel();
+		if (table != null && words == 1)
+			return table.accepts(input);
+		// step() goes through the table too, when there is one
+		return accepts(input, new long[words], new long[words], newStack());
+	}
+
+	/**
+	 * @return a new matcher at the closure of the initial state, to be used
+	 * by a single thread.
+	 */
+	@Override
+	public Matcher matcher() {
+		return new NFAMatcher(this);
+	}
+
+	/**
+	 * @return a test for acceptance that reuses its buffers on every call,
+	 * to be used by a single thread.
+	 */
+	Predicate<CharSequence> acceptor() {
+		final long[] current = new long[words];
+		final long[] next = new long[words];
+		final int[] stack = newStack();
+		return input -> accepts(input, current, next, stack);
+	}
+
+	/**
+	 * @return scratch space for expanding closures during the simulation.
+	 */
+	int[] newStack() {
+		return new int[closures == null && lambdaOffsets != null ? accepting.length : 0];
+	}
+
+	/**
+	 * Runs the set simulation using the given buffers: current and next must
+	 * hold at least words longs each and stack must come from newStack().
+	 * No memory is allocated.
+	 */
+	boolean accepts(CharSequence input, long[] current, long[] next, int[] stack) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+
+		start(current, stack);
+		int n = input.length();
+		for (int i = 0; i < n; i++) {
+			int column = symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			if (!step(current, column, next, stack)) {
+				for (i++; i < n; i++) {
+					if (symbols.column(input.charAt(i)) < 0)
+						throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+				}
+				return false;
+			}
+			long[] swap = current;
+			current = next;
+			next = swap;
+		}
+		return intersectsAccepting(current);
+	}
+
+	/**
+	 * Loads the closure of the initial state into set.
+	 */
+	void start(long[] set, int[] stack) {
+		for (int w = 0; w < words; w++) {
+			set[w] = 0L;
+		}
+		if (initial >= 0)
+			enter(initial, set, stack);
+	}
+
+	/**
+	 * Computes in next the closure of the successors of the states in
+	 * current via column.
+	 * @return false iff next is empty.
+	 */
+	boolean step(long[] current, int column, long[] next, int[] stack) {
+		BitParallelNFA table = bitParallel();
+		if (table != null)
+			return table.step(current, column, next);
+		for (int w = 0; w < words; w++) {
+			next[w] = 0L;
+		}
+		boolean any = false;
+		for (int w = 0; w < words; w++) {
+			long bits = current[w];
+			while (bits != 0L) {
+				int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				int cell = s * width + column;
+				for (int i = offsets[cell], end = offsets[cell + 1]; i < end; i++) {
+					int t = targets[i];
+					if ((next[t >>> 6] & (1L << t)) == 0L)
+						enter(t, next, stack);
+					any = true;
+				}
+			}
+		}
+		return any;
+	}
+
+	/**
+	 * Loads into set the successors of s via column, closed under lambda.
+	 */
+	void successors(int s, int column, long[] set, int[] stack) {
+		for (int w = 0; w < words; w++) {
+			set[w] = 0L;
+		}
+		int cell = s * width + column;
+		for (int i = offsets[cell], end = offsets[cell + 1]; i < end; i++) {
+			int t = targets[i];
+			if ((set[t >>> 6] & (1L << t)) == 0L)
+				enter(t, set, stack);
+		}
+	}
+
+	/**
+	 * Adds s and its lambda closure to set. A state already in set has its
+	 * closure there too, so callers only enter states not in set.
+	 */
+	void enter(int s, long[] set, int[] stack) {
+		if (lambdaOffsets == null) {
+			set[s >>> 6] |= 1L << s;
+		} else if (closures != null) {
+			int base = component[s] * words;
+			for (int w = 0; w < words; w++) {
+				set[w] |= closures[base + w];
+			}
+		} else {
+			int sp = 0;
+			set[s >>> 6] |= 1L << s;
+			stack[sp++] = s;
+			while (sp > 0) {
+				int u = stack[--sp];
+				for (int i = lambdaOffsets[u]; i < lambdaOffsets[u + 1]; i++) {
+					int t = lambdaTargets[i];
+					if ((set[t >>> 6] & (1L << t)) == 0L) {
+						set[t >>> 6] |= 1L << t;
+						stack[sp++] = t;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Subset construction over canonical bitset keys. Subsets are numbered
+	 * as they are discovered, starting from the closure of the initial
+	 * state, and only subsets reachable from it are built. The empty subset
+	 * becomes the dead state.
+	 * @return a DFA recognizing the same language.
+	 */
+	public CompiledDFA determinize() {
+		Map<Subset, Integer> ids = new HashMap<Subset, Integer>();
+		List<long[]> sets = new ArrayList<long[]>();
+		int[] table = new int[16 * width];
+		long[] next = new long[words];
+		int[] stack = newStack();
+
+		long[] first = new long[words];
+		start(first, stack);
+		if (!new Subset(first).isEmpty()) {
+			ids.put(new Subset(first), 0);
+			sets.add(first);
+		}
+
+		for (int s = 0; s < sets.size(); s++) {
+			if ((s + 1) * width > table.length)
+				table = Arrays.copyOf(table, table.length * 2);
+			for (int column = 0; column < width; column++) {
+				if (!step(sets.get(s), column, next, stack)) {
+					table[s * width + column] = -1;
+					continue;
+				}
+				Subset key = new Subset(next.clone());
+				Integer t = ids.get(key);
+				if (t == null) {
+					t = sets.size();
+					ids.put(key, t);
+					sets.add(key.bits);
+				}
+				table[s * width + column] = t;
+			}
+		}
+
+		int n = sets.size() + 1;
+		int dead = n - 1;
+		table = Arrays.copyOf(table, n * width);
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] < 0 || i >= dead * width)
+				table[i] = dead;
+		}
+		boolean[] dfaAccepting = new boolean[n];
+		for (int s = 0; s < dead; s++) {
+			dfaAccepting[s] = intersectsAccepting(sets.get(s));
+		}
+		return new CompiledDFA(symbols, dead == 0 ? dead : 0, table, dfaAccepting, new String[n]);
+	}
+
+	/**
+	 * @return true iff set contains some final state.
+	 */
+	boolean intersectsAccepting(long[] set) {
+		for (int w = 0; w < words; w++) {
+			if ((set[w] & acceptMask[w]) != 0L)
+				return true;
+		}
+		return false;
+	}
+}
@@ -1,6 +1,8 @@
 package tp1.automatas;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 
 import tp1.utils.Tupla;
@@ -15,8 +17,9 @@ public class DFA extends FA {
 	throws IllegalArgumentException, AutomatonException {
 
 		this.states = states;
+		states.watch();
 		this.alphabet = alphabet;
-		this.delta = new HashMap<State, HashMap<Character, StateSet>>();
+		this.delta = newDelta();
 		
 		HashMap<Character, StateSet> stateArcs;
 		StateSet singletonStateSet;
@@ -32,7 +35,7 @@ public class DFA extends FA {
 				if (this.delta.containsKey(tupla.first())) {
 					stateArcs = this.delta.get(tupla.first());
 				} else {
-					stateArcs = new HashMap<Character, StateSet>();
+					stateArcs = newArcs();
 				}
 				
 				if (stateArcs.containsKey(tupla.second())) {
@@ -64,14 +67,9 @@ public class DFA extends FA {
 
 		for (State s : states) {
 			for (Character c : alphabet) {
-				StateSet setD = new StateSet();
-				try {
-					setD = delta(s, c);
-					if(setD.size() > 0) {
-						t.add(new Tupla<State,Character,State>(s.cloneState(), c, (setD.get(0)).cloneState()));
-					}
-				} catch (Exception e) {
-					continue;
+				StateSet setD = successors(s, c);
+				if(setD.size() > 0) {
+					t.add(new Tupla<State,Character,State>(s.cloneState(), c, (setD.get(0)).cloneState()));
 				}
 			}
 		}
@@ -79,28 +77,58 @@ public class DFA extends FA {
 		return t;
 	}
 
+	/**
+	 * Runs the transition table of the automaton, which is kept between
+	 * calls and compiled again only after the automaton changed, so
+	 * changes are always seen.
+	 */
 	@Override
 	public boolean accepts(String string) throws IllegalArgumentException, AutomatonException{
 		// assert repOk();
-		if (string == null) throw new IllegalArgumentException("String can't be null");
-		if (!verifyString(string)) 
-			throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
-
-		State s = this.initialState();
-		for (char c : string.toCharArray()) {
-			StateSet singletonSet = new StateSet();
-			try {
-				singletonSet = delta(s, c);
-			} catch (Exception e) {
-				return false;
-			}
-			if (singletonSet.size() > 0) {
-				s = singletonSet.get(0);
-			} else {
-				return false;
-			}
-		}
-		return s.isFinal();
+		return table().accepts(string);
+	}
+
+	/**
+	 * @return the compiled form of the automaton as it is now, shared
+	 * between calls until the automaton changes.
+	 */
+	private CompiledDFA table() {
+		return (CompiledDFA) compiled();
+	}
+
+	/**
+	 * Compiles the automaton into an immutable transition table. Every call
+	 * compiles again, and the result is a snapshot: later changes to the
+	 * automaton are not reflected in it.
+	 * @return the compiled form of this automaton.
+	 */
+	public CompiledDFA compile() {
+		return CompiledDFA.of(this);
+	}
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton,
+	 * running long strings in parallel chunks on all cores.
+	 * @see CompiledDFA#acceptsParallel(CharSequence)
+	 */
+	public boolean acceptsParallel(CharSequence input) {
+		return table().acceptsParallel(input);
+	}
+
+	@Override
+	public CompiledDFA freeze() {
+		return CompiledDFA.of(this);
+	}
+
+	@Override
+	public Matcher matcher() {
+		return table().matcher();
+	}
+
+	@Override
+	Supplier<Predicate<CharSequence>> acceptors() {
+		final CompiledDFA dfa = table();
+		return () -> dfa::accepts;
 	}
 	
 	/**
@@ -156,6 +184,16 @@ public class DFA extends FA {
 		return true;
 	}
 
+	/**
+	 * Returns the minimal automaton recognizing the same language, with its
+	 * states numbered canonically from q0.
+	 * @throws AutomatonException
+	 * @returns a new minimal DFA accepting the same language.
+	 */
+	public DFA minimize() throws AutomatonException {
+		return compile().minimize().toDFA();
+	}
+
 	/**
 	 * Returns a new automaton which recognizes the complementary language.
 	 * @throws CloneNotSupportedException
@@ -190,13 +228,7 @@ public class DFA extends FA {
 				s1.setFinal(true);
 			}
 			for (Character c : dfa.alphabet) {
-				StateSet setD = new StateSet();
-				try {
-					setD = dfa.delta(s, c);
-				} catch (Exception e) {
-					continue;
-				}
-				 
+				StateSet setD = dfa.successors(s, c);
 				if(setD.size() > 0) {
 					State s2 = (setD.get(0)).cloneState();
 					if(s2.isFinal()) {
@@ -220,10 +252,7 @@ public class DFA extends FA {
 	 */
 	public DFA intersection(DFA other) throws Exception {
 
-		DFA a1 = cloneDFA();
-		DFA a2 = other.cloneDFA();
-		
-		return (a1.complement().union(a2.complement())).complement();
+		return compile().intersection(other.compile()).toDFA();
 	}
 
 	/**
@@ -235,75 +264,28 @@ public class DFA extends FA {
 	 */
 	public DFA union(DFA other) throws AutomatonException, Exception {
 
-		DFA dfa1 = cloneDFA();
-		DFA dfa2 = other.cloneDFA();
-
-		// New initial state
-		State newInitState = new State("q'", true, false);
-		// New StateSet
-		StateSet ss = new StateSet();
-		ss.addState(newInitState); 
-		// New Alphabet
-		Alphabet a = new Alphabet();
-		a = dfa1.alphabet.cloneAlpha();
-		a.union(dfa2.alphabet.cloneAlpha());
-		// New Transitions
-		Set<Tupla<State, Character, State>> t = new HashSet<Tupla<State, Character, State>>();
-		
-		// Cloning the new stateset
-		HashMap<State, String> aux1 = new HashMap<State, String>();
-		HashMap<State, String> aux2 = new HashMap<State, String>();
-
-		int i = 0;
-		
-		for (State s : dfa1.states) {
-			Boolean f = false;
-			aux1.put(s, "q"+i);
-			if(s.isFinal()) f = true;
-			State newS = new State("q"+i, false, f);
-			ss.addState(newS);
-			if(s.isInitial()) {
-				t.add(new Tupla<State,Character,State>(newInitState, null, newS));
-			}
-			i++;
-		}
+		return compile().union(other.compile()).toDFA();
+	}
 
-		for (State s : dfa2.states) {
-			Boolean f = false;
-			aux2.put(s, "q"+i);
-			if(s.isFinal()) f = true;
-			State newS = new State("q"+i, false, f);
-			ss.addState(newS);
-			if(s.isInitial()) {
-				t.add(new Tupla<State,Character,State>(newInitState, null, newS));
-			}
-			i++;
-		}
+	/**
+	 * Returns a new automaton which recognizes the strings accepted by 'this'
+	 * but not by 'other'.
+	 * @throws AutomatonException
+	 * @returns a new DFA accepting the difference of both languages.
+	 */
+	public DFA difference(DFA other) throws AutomatonException {
 
-		for (State s : dfa1.states) {
-			HashMap<Character, StateSet> g = dfa1.delta.get(s);
-			for (Character c : dfa1.alphabet) {
-				if(g.containsKey(c)) {
-					String name1 = aux1.get(s);
-					String name2 = aux1.get(g.get(c).get(0));
-					t.add(new Tupla<State,Character,State>(ss.belongTo(name1), c, ss.belongTo(name2)));
-				}
-			}
-		}
+		return compile().difference(other.compile()).toDFA();
+	}
 
-		for (State s : dfa2.states) {
-			HashMap<Character, StateSet> g = dfa2.delta.get(s);
-			for (Character c : dfa2.alphabet) {
-				if(g.containsKey(c)) {
-					String name1 = aux2.get(s);
-					String name2 = aux2.get(g.get(c).get(0));
-					t.add(new Tupla<State,Character,State>(ss.belongTo(name1), c, ss.belongTo(name2)));
-				}
-			}
-		}
+	/**
+	 * Returns a new automaton which recognizes the strings accepted by
+	 * exactly one of 'this' and 'other'.
+	 * @throws AutomatonException
+	 * @returns a new DFA accepting the symmetric difference of both languages.
+	 */
+	public DFA symmetricDifference(DFA other) throws AutomatonException {
 
-		NFALambda newNFA = new NFALambda(ss, a, t);
-		
-		return newNFA.toDFA();
+		return compile().symmetricDifference(other.compile()).toDFA();
 	}
 }
@@ -0,0 +1,168 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+
+/**
+ * Bulk builder for compiled DFAs.
+ *
+ * States are dense ints handed out by addState, and symbols are the
+ * positions of the alphabet symbols in ascending order. Transitions are
+ * written straight into a growing transition table, which checks that
+ * every state and symbol exists and that the function stays deterministic
+ * as each transition is added, without building any object per arc.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class DFABuilder {
+
+	//table cell without a transition
+	private static final int NONE = -1;
+
+	private final SymbolMap symbols;
+
+	private final int width;
+
+	private int count;
+
+	private int initial = NONE;
+
+	private boolean[] accepting = new boolean[16];
+
+	//names given to states, null until some state gets one
+	private String[] names;
+
+	private int[] table;
+
+	public DFABuilder(Alphabet alphabet) {
+		this(SymbolMap.of(alphabet));
+	}
+
+	DFABuilder(SymbolMap symbols) {
+		this.symbols = symbols;
+		this.width = symbols.width;
+		this.table = new int[16 * width];
+		Arrays.fill(table, NONE);
+	}
+
+	/**
+	 * @return number of symbols of the alphabet.
+	 */
+	public int symbolCount() {
+		return symbols.symbols.length;
+	}
+
+	/**
+	 * @return the symbol index of c, or -1 when c does not belong to the alphabet.
+	 */
+	public int symbol(char c) {
+		int i = Arrays.binarySearch(symbols.symbols, c);
+		return i < 0 ? -1 : i;
+	}
+
+	/**
+	 * @return number of states added so far.
+	 */
+	public int stateCount() {
+		return count;
+	}
+
+	/**
+	 * Adds a non final state.
+	 * @return its id.
+	 */
+	public int addState() {
+		return addStates(1);
+	}
+
+	/**
+	 * Adds n non final states with consecutive ids.
+	 * @return id of the first one.
+	 */
+	public int addStates(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Invalid number of states");
+		int first = count;
+		int needed = count + n;
+		if (needed > accepting.length) {
+			int capacity = Math.max(needed, accepting.length * 2);
+			accepting = Arrays.copyOf(accepting, capacity);
+			if (names != null)
+				names = Arrays.copyOf(names, capacity);
+			int cells = table.length;
+			table = Arrays.copyOf(table, capacity * width);
+			Arrays.fill(table, cells, table.length, NONE);
+		}
+		count = needed;
+		return first;
+	}
+
+	public DFABuilder setInitial(int s) {
+		checkState(s);
+		initial = s;
+		return this;
+	}
+
+	public DFABuilder setFinal(int s, boolean isFinal) {
+		checkState(s);
+		accepting[s] = isFinal;
+		return this;
+	}
+
+	public DFABuilder setName(int s, String name) {
+		checkState(s);
+		if (names == null)
+			names = new String[accepting.length];
+		names[s] = name;
+		return this;
+	}
+
+	/**
+	 * Adds the transition from --symbol--> to.
+	 * @throws IllegalArgumentException if a state or the symbol does not
+	 * exist, or if from already has a different transition via symbol.
+	 */
+	public DFABuilder addTransition(int from, int symbol, int to) {
+		checkState(from);
+		checkState(to);
+		if (symbol < 0 || symbol >= symbols.symbols.length)
+			throw new IllegalArgumentException("Transition's symbol must belong to the alphabet");
+		int cell = from * width + symbols.columnAt(symbol);
+		if (table[cell] != NONE && table[cell] != to)
+			throw new IllegalArgumentException("Invalid transitions for DFA");
+		table[cell] = to;
+		return this;
+	}
+
+	public DFABuilder addTransition(int from, char c, int to) {
+		int symbol = symbol(c);
+		if (symbol < 0)
+			throw new IllegalArgumentException("Transition's symbol must belong to the alphabet");
+		return addTransition(from, symbol, to);
+	}
+
+	/**
+	 * Freezes the states and transitions added so far. Missing transitions
+	 * go to a dead state appended after the last state; without an initial
+	 * state the automaton starts in the dead state. The builder can still be
+	 * used afterwards.
+	 * @return an immutable compiled automaton.
+	 */
+	public CompiledDFA build() {
+		int n = count + 1;
+		int dead = count;
+		int[] frozen = Arrays.copyOf(table, n * width);
+		for (int i = 0; i < frozen.length; i++) {
+			if (frozen[i] == NONE || i >= dead * width)
+				frozen[i] = dead;
+		}
+		String[] frozenNames = names == null ? new String[n] : Arrays.copyOf(names, n);
+		return new CompiledDFA(symbols, initial == NONE ? dead : initial, frozen,
+				Arrays.copyOf(accepting, n), frozenNames);
+	}
+
+	private void checkState(int s) {
+		if (s < 0 || s >= count)
+			throw new IllegalArgumentException("Invalid state!");
+	}
+}
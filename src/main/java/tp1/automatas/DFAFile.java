@@ -0,0 +1,306 @@
+package tp1.automatas;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file format for compiled DFAs, loaded by mapping the file into
+ * memory so that a large automaton is ready to match as soon as it is
+ * opened, without parsing or copying it to the heap.
+ *
+ * The file is little endian and made of a fixed size header followed by
+ * three sections, each one starting at a multiple of 8:
+ * <ul>
+ * <li>header: magic, version, state count, table width, symbol count,
+ * initial state, dead state, cell size in bytes, CRC32 of everything
+ * after the header, and a reserved int;</li>
+ * <li>symbols: for every symbol in ascending order, the char and the table
+ * column it maps to;</li>
+ * <li>accepting states: a bitset of one bit per state, in longs;</li>
+ * <li>table: the target of every (state, column) cell, row by row, as an
+ * unsigned byte when there are at most 256 states, an unsigned short when
+ * there are at most 65536, and an int otherwise.</li>
+ * </ul>
+ * State names are not stored. Only files of the current VERSION are read.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class DFAFile {
+
+	//"TPDF" read as a little endian int
+	static final int MAGIC = 0x46445054;
+
+	//version 1, with int cells only, was never released
+	static final int VERSION = 2;
+
+	static final int HEADER_BYTES = 40;
+
+	//bytes written at a time
+	private static final int CHUNK = 1 << 16;
+
+	private DFAFile() {
+	}
+
+	/**
+	 * Writes dfa to path, replacing any existing file.
+	 * @throws IllegalArgumentException if dfa does not fit in the format.
+	 */
+	public static void write(CompiledDFA dfa, Path path) throws IOException {
+		Layout layout = new Layout(dfa.stateCount(), dfa.width, dfa.symbols.symbols.length);
+		CRC32 crc = new CRC32();
+		ByteBuffer chunk = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+		try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			out.position(HEADER_BYTES);
+			encode(dfa, layout, chunk, out, crc);
+			flush(out, chunk, crc);
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header(dfa, layout, (int) crc.getValue(), header);
+			((Buffer) header).flip();
+			while (header.hasRemaining()) {
+				out.write(header, HEADER_BYTES - header.remaining());
+			}
+		}
+	}
+
+	/**
+	 * Lays dfa out in a direct buffer, in the same format as a file.
+	 * @throws IllegalArgumentException if dfa does not fit in the format.
+	 */
+	static BufferDFA toBuffer(CompiledDFA dfa) {
+		Layout layout = new Layout(dfa.stateCount(), dfa.width, dfa.symbols.symbols.length);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(layout.size).order(ByteOrder.LITTLE_ENDIAN);
+		((Buffer) buffer).position(HEADER_BYTES);
+		try {
+			encode(dfa, layout, buffer, null, null);
+		} catch (IOException e) {
+			// nothing is written to a channel
+			throw new IllegalStateException(e);
+		}
+		CRC32 crc = new CRC32();
+		ByteBuffer payload = buffer.duplicate();
+		((Buffer) payload).position(HEADER_BYTES);
+		crc.update(payload);
+		((Buffer) buffer).clear();
+		header(dfa, layout, (int) crc.getValue(), buffer);
+		((Buffer) buffer).clear();
+		try {
+			return open(buffer, false);
+		} catch (AutomatonException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Maps the automaton stored at path without verifying it, in time
+	 * independent of the size of the table.
+	 * @see #load(Path, boolean)
+	 * @throws AutomatonException if the file is not a valid automaton.
+	 */
+	public static BufferDFA load(Path path) throws IOException, AutomatonException {
+		return load(path, false);
+	}
+
+	/**
+	 * Maps the automaton stored at path. The header, the symbols and the
+	 * dead state, which must be a non accepting sink, are always checked.
+	 * Verification also checks the checksum and that every transition is
+	 * in range, reading the whole file; without it a corrupt table may give
+	 * wrong answers or fail while matching.
+	 * @throws AutomatonException if the file is not a valid automaton.
+	 */
+	public static BufferDFA load(Path path, boolean verify) throws IOException, AutomatonException {
+		MappedByteBuffer buffer;
+		try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (in.size() < HEADER_BYTES || in.size() > Integer.MAX_VALUE)
+				throw new AutomatonException("Invalid automaton file: wrong size");
+			buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+		}
+		return open(buffer, verify);
+	}
+
+	/**
+	 * @return the smallest cell size in bytes able to hold every state id.
+	 */
+	static int cellBytes(int states) {
+		if (states <= 1 << 8)
+			return 1;
+		if (states <= 1 << 16)
+			return 2;
+		return 4;
+	}
+
+	private static BufferDFA open(ByteBuffer buffer, boolean verify) throws AutomatonException {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.getInt(0) != MAGIC)
+			throw new AutomatonException("Invalid automaton file: wrong magic number");
+		int version = buffer.getInt(4);
+		if (version != VERSION)
+			throw new AutomatonException("Invalid automaton file: unsupported version " + version);
+		int states = buffer.getInt(8);
+		int width = buffer.getInt(12);
+		int symbolCount = buffer.getInt(16);
+		int initial = buffer.getInt(20);
+		int dead = buffer.getInt(24);
+		int cellBytes = buffer.getInt(28);
+		int crc = buffer.getInt(32);
+		if (states < 1 || width < 0 || symbolCount < 0 || cellBytes != cellBytes(states) || initial < 0
+				|| initial >= states || dead != states - 1)
+			throw new AutomatonException("Invalid automaton file: wrong header");
+		Layout layout;
+		try {
+			layout = new Layout(states, width, symbolCount, cellBytes);
+		} catch (IllegalArgumentException e) {
+			throw new AutomatonException("Invalid automaton file: wrong header");
+		}
+		if (layout.size != buffer.capacity())
+			throw new AutomatonException("Invalid automaton file: wrong size");
+
+		if (verify) {
+			CRC32 check = new CRC32();
+			ByteBuffer payload = buffer.duplicate();
+			((Buffer) payload).position(HEADER_BYTES);
+			check.update(payload);
+			if ((int) check.getValue() != crc)
+				throw new AutomatonException("Invalid automaton file: wrong checksum");
+		}
+
+		char[] symbols = new char[symbolCount];
+		int[] columns = new int[symbolCount];
+		for (int i = 0; i < symbolCount; i++) {
+			int at = layout.symbolOffset + i * 6;
+			symbols[i] = buffer.getChar(at);
+			columns[i] = buffer.getInt(at + 2);
+			if (columns[i] < 0 || columns[i] >= width || (i > 0 && symbols[i] <= symbols[i - 1]))
+				throw new AutomatonException("Invalid automaton file: wrong symbols");
+		}
+
+		BufferDFA dfa = new BufferDFA(new SymbolMap(symbols, columns, width), states, initial, dead, buffer,
+				layout.acceptOffset, layout.tableOffset, cellBytes);
+		// matching stops at the dead state, so it must not lead anywhere
+		if (dfa.isAccepting(dead))
+			throw new AutomatonException("Invalid automaton file: accepting dead state");
+		for (int column = 0; column < width; column++) {
+			if (dfa.next(dead, column) != dead)
+				throw new AutomatonException("Invalid automaton file: dead state is not a sink");
+		}
+		if (verify) {
+			for (int s = 0; s < states; s++) {
+				for (int column = 0; column < width; column++) {
+					int t = dfa.next(s, column);
+					if (t < 0 || t >= states)
+						throw new AutomatonException("Invalid automaton file: transition out of range");
+				}
+			}
+		}
+		return dfa;
+	}
+
+	private static void header(CompiledDFA dfa, Layout layout, int crc, ByteBuffer header) {
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(dfa.stateCount());
+		header.putInt(dfa.width);
+		header.putInt(dfa.symbols.symbols.length);
+		header.putInt(dfa.initial);
+		header.putInt(dfa.dead);
+		header.putInt(layout.cellBytes);
+		header.putInt(crc);
+		header.putInt(0);
+	}
+
+	/**
+	 * Writes the sections after the header into chunk, which is flushed to
+	 * out whenever it fills up. Without out, chunk must be large enough to
+	 * hold every section.
+	 */
+	private static void encode(CompiledDFA dfa, Layout layout, ByteBuffer chunk, FileChannel out, CRC32 crc)
+			throws IOException {
+		for (int i = 0; i < dfa.symbols.symbols.length; i++) {
+			room(out, chunk, crc, 6);
+			chunk.putChar(dfa.symbols.symbols[i]);
+			chunk.putInt(dfa.symbols.columnAt(i));
+		}
+		for (int i = layout.symbolOffset + 6 * dfa.symbols.symbols.length; i < layout.acceptOffset; i++) {
+			room(out, chunk, crc, 1);
+			chunk.put((byte) 0);
+		}
+
+		long word = 0L;
+		for (int s = 0; s < dfa.accepting.length; s++) {
+			if (dfa.accepting[s])
+				word |= 1L << s;
+			if ((s & 63) == 63 || s == dfa.accepting.length - 1) {
+				room(out, chunk, crc, 8);
+				chunk.putLong(word);
+				word = 0L;
+			}
+		}
+
+		for (int cell : dfa.table) {
+			room(out, chunk, crc, layout.cellBytes);
+			if (layout.cellBytes == 1)
+				chunk.put((byte) cell);
+			else if (layout.cellBytes == 2)
+				chunk.putShort((short) cell);
+			else
+				chunk.putInt(cell);
+		}
+	}
+
+	// makes room for size more bytes in chunk, writing it out when full
+	private static void room(FileChannel out, ByteBuffer chunk, CRC32 crc, int size) throws IOException {
+		if (out != null && chunk.remaining() < size)
+			flush(out, chunk, crc);
+	}
+
+	private static void flush(FileChannel out, ByteBuffer chunk, CRC32 crc) throws IOException {
+		((Buffer) chunk).flip();
+		ByteBuffer view = chunk.duplicate();
+		crc.update(view);
+		while (chunk.hasRemaining()) {
+			out.write(chunk);
+		}
+		((Buffer) chunk).clear();
+	}
+
+	// offsets of the sections of a file
+	private static final class Layout {
+		final int symbolOffset;
+		final int acceptOffset;
+		final int tableOffset;
+		final int size;
+		final int cellBytes;
+
+		Layout(int states, int width, int symbolCount) {
+			this(states, width, symbolCount, cellBytes(states));
+		}
+
+		Layout(int states, int width, int symbolCount, int cellBytes) {
+			long symbolOffset = HEADER_BYTES;
+			long acceptOffset = align(symbolOffset + 6L * symbolCount);
+			long tableOffset = acceptOffset + 8L * ((states + 63) >>> 6);
+			long size = tableOffset + (long) cellBytes * states * width;
+			if (size > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Automaton too large for the file format");
+			this.cellBytes = cellBytes;
+			this.symbolOffset = (int) symbolOffset;
+			this.acceptOffset = (int) acceptOffset;
+			this.tableOffset = (int) tableOffset;
+			this.size = (int) size;
+		}
+
+		private static long align(long offset) {
+			return (offset + 7) & ~7L;
+		}
+	}
+}
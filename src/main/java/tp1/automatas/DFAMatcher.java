@@ -0,0 +1,61 @@
+package tp1.automatas;
+
+/**
+ * Matcher running a compiled DFA, one table lookup per character.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class DFAMatcher extends Matcher {
+
+	private final CompiledDFA dfa;
+
+	//current state
+	private int state;
+
+	DFAMatcher(CompiledDFA dfa) {
+		this.dfa = dfa;
+		this.state = dfa.initial;
+	}
+
+	@Override
+	public void feed(char c) {
+		int column = dfa.symbols.column(c);
+		if (column < 0)
+			throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+		state = dfa.table[state * dfa.width + column];
+	}
+
+	@Override
+	public void feed(CharSequence input, int from, int to) {
+		checkRange(input, from, to);
+		SymbolMap symbols = dfa.symbols;
+		int[] table = dfa.table;
+		int width = dfa.width;
+		int s = state;
+		for (int i = from; i < to; i++) {
+			int column = symbols.column(input.charAt(i));
+			if (column < 0) {
+				state = s;
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			}
+			s = table[s * width + column];
+		}
+		state = s;
+	}
+
+	@Override
+	public boolean isAccepting() {
+		return dfa.accepting[state];
+	}
+
+	@Override
+	public boolean isDead() {
+		return state == dfa.dead;
+	}
+
+	@Override
+	public void reset() {
+		state = dfa.initial;
+	}
+}
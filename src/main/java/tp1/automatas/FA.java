@@ -1,6 +1,14 @@
 package tp1.automatas;
 
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * @author Fernandez, Camilo
@@ -18,6 +26,12 @@ public abstract class FA {
 	**/
 	public HashMap<State, HashMap<Character, StateSet>> delta;
 
+	//initial and final states, recomputed when states changes
+	private volatile Cache cache;
+
+	//compiled form, recompiled when states, delta or alphabet change
+	private volatile Compiled compiled;
+
 	/*
 	 * @return the atomaton's set of states.
 	 */
@@ -41,12 +55,7 @@ public abstract class FA {
 	 * @return the atomaton's initial state.
 	 */
 	public State initialState() {
-
-		for (State s:states) {
-			if (s.isInitial()) 
-				return s;
-		}
-		return null;
+		return cache().initial;
 	}
 
 	/**
@@ -54,16 +63,122 @@ public abstract class FA {
 	 * @throws AutomatonException
 	 */
 	public StateSet finalStates() throws AutomatonException{
-
+		Cache c = cache();
 		StateSet result = new StateSet();
-		for (State s:states) {
-			if (s.isFinal() == true) {
-				result.addState(s);
-			}
+		for (int i = c.finals.nextSetBit(0); i >= 0; i = c.finals.nextSetBit(i + 1)) {
+			result.addState(c.states.get(i));
 		}
 		return result;
 	}
 
+	/**
+	 * @return the initial and final states, recomputed when the set of
+	 * states or the flags of a state changed since they were cached.
+	 */
+	private Cache cache() {
+		Cache c = cache;
+		if (c == null || c.states != states || c.modCount != states.modCount()) {
+			c = new Cache(states);
+			cache = c;
+		}
+		return c;
+	}
+
+	// immutable once built, hence safe to share between readers
+	private static final class Cache {
+		final StateSet states;
+		final int modCount;
+
+		//first initial state, null if there is none
+		final State initial;
+
+		//positions in states of the final states
+		final BitSet finals;
+
+		Cache(StateSet states) {
+			this.states = states;
+			this.modCount = states.modCount();
+			State first = null;
+			BitSet f = new BitSet(states.size());
+			for (int i = 0; i < states.size(); i++) {
+				State s = states.get(i);
+				if (first == null && s.isInitial())
+					first = s;
+				if (s.isFinal())
+					f.set(i);
+			}
+			this.initial = first;
+			this.finals = f;
+		}
+	}
+
+	/**
+	 * @return an empty transition function that counts its changes, those
+	 * of the maps from newArcs() stored in it included.
+	 */
+	static HashMap<State, HashMap<Character, StateSet>> newDelta() {
+		return new TrackedMap<State, HashMap<Character, StateSet>>(new TrackedMap.Version());
+	}
+
+	/**
+	 * @return an empty map of arcs of a state, to be stored in delta,
+	 * counting its changes as changes of delta.
+	 */
+	HashMap<Character, StateSet> newArcs() {
+		if (delta instanceof TrackedMap)
+			return new TrackedMap<Character, StateSet>(((TrackedMap<?, ?>) delta).version);
+		return new HashMap<Character, StateSet>();
+	}
+
+	/**
+	 * @return the result of freeze() for the automaton as it is now. It is
+	 * compiled again only after states, delta or the alphabet changed, or on
+	 * every call while delta holds maps that do not count their changes.
+	 */
+	FrozenFA compiled() {
+		Compiled c = compiled;
+		if (c == null || !c.isCurrent(this)) {
+			c = new Compiled(this);
+			if (c.deltaVersion >= 0)
+				compiled = c;
+		}
+		return c.frozen;
+	}
+
+	// immutable once built, hence safe to share between readers
+	private static final class Compiled {
+		final StateSet states;
+		final int statesModCount;
+		final HashMap<?, ?> delta;
+
+		//-1 when delta does not count its changes
+		final int deltaVersion;
+		final Alphabet alphabet;
+		final int alphabetModCount;
+		final FrozenFA frozen;
+
+		// the counts are taken first, so changes made meanwhile are noticed
+		Compiled(FA fa) {
+			this.states = fa.states;
+			this.statesModCount = fa.states.modCount();
+			this.delta = fa.delta;
+			this.deltaVersion = version(fa.delta);
+			this.alphabet = fa.alphabet;
+			this.alphabetModCount = fa.alphabet.modCount();
+			this.frozen = fa.freeze();
+		}
+
+		boolean isCurrent(FA fa) {
+			return states == fa.states && statesModCount == fa.states.modCount()
+				&& delta == fa.delta && deltaVersion == version(fa.delta)
+				&& alphabet == fa.alphabet && alphabetModCount == fa.alphabet.modCount();
+		}
+
+		private static int version(HashMap<?, ?> delta) {
+			return delta instanceof TrackedMap ? ((TrackedMap<?, ?>) delta).version.get() : -1;
+		}
+	}
+
 	/**
 	 * Query for the automaton's transition function.
 	 *
@@ -87,19 +202,56 @@ public abstract class FA {
 		return s.get(label);
 	}
 
+	/**
+	 * Query for the transition function that never throws, meant for
+	 * algorithms walking the whole function where most lookups miss.
+	 *
+	 * @return the successors of the given state via the given label, null
+	 * for lambda, or an empty read only set when there are none. The
+	 * result must not be modified.
+	 */
+	public StateSet successors(State from, Character label) {
+		HashMap<Character, StateSet> arcs = delta.get(from);
+		if (arcs == null)
+			return StateSet.empty();
+		StateSet targets = arcs.get(label);
+		return targets == null ? StateSet.empty() : targets;
+	}
+
 	/**
 	 * Verifies whether the string is composed of characters in the alphabet of the automaton.
 	 * @return True iff the string consists only of characters in the alphabet.
 	 */
 	public boolean verifyString(String s) {
-		Boolean control = true;
-		int i = 0;
+		for (int i = 0; i < s.length(); i++) {
+			if (!alphabet.contains(s.charAt(i)))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Numbers the states densely, following the order of the state set.
+	 * States only reachable through delta are numbered after them.
+	 * @return map from state names to ids.
+	 */
+	Map<String, Integer> stateIds() {
+		Map<String, Integer> ids = new HashMap<String, Integer>();
 
-		while (i < s.length() && control == true) {
-			control = alphabet.belongsTo(s.charAt(i));
-			i++;
+		for (State s : states) {
+			ids.put(s.getName(), ids.size());
+		}
+		for (Map.Entry<State, HashMap<Character, StateSet>> arcs : delta.entrySet()) {
+			if (!ids.containsKey(arcs.getKey().getName()))
+				ids.put(arcs.getKey().getName(), ids.size());
+			for (StateSet targets : arcs.getValue().values()) {
+				for (State t : targets) {
+					if (!ids.containsKey(t.getName()))
+						ids.put(t.getName(), ids.size());
+				}
+			}
 		}
-		return control;
+		return ids;
 	}
 
 	/**
@@ -131,5 +283,70 @@ public abstract class FA {
 	 * @throws AutomatonException
 	 * @throws CloneNotSupportedException
 	 */
-	public abstract boolean accepts(String string) throws AutomatonException, CloneNotSupportedException;	
+	public abstract boolean accepts(String string) throws AutomatonException, CloneNotSupportedException;
+
+	/**
+	 * Builds a matcher for inputs given in pieces, such as streams. The
+	 * automaton must not be modified while the matcher is in use.
+	 *
+	 * @return a new matcher at the initial state, to be used by a single
+	 * thread.
+	 */
+	public abstract Matcher matcher();	
+
+	/**
+	 * Takes an immutable snapshot of the automaton as it is now. Unlike the
+	 * automaton itself, the snapshot can be shared by any number of threads,
+	 * and later changes to the automaton do not affect it.
+	 *
+	 * @return a new frozen automaton accepting the same language.
+	 */
+	public abstract FrozenFA freeze();
+
+	/**
+	 * Tests every string of inputs for acceptance, splitting the work among
+	 * the threads of the common ForkJoinPool.
+	 *
+	 * @param inputs Strings to be tested for acceptance.
+	 * @return the positions in inputs of the accepted strings.
+	 * @throws IllegalArgumentException if some string is null or has
+	 * characters outside the alphabet.
+	 */
+	public BitSet acceptsAll(List<? extends CharSequence> inputs) {
+		return acceptsAll(inputs, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Tests every string of inputs for acceptance, splitting the work among
+	 * the threads of executor.
+	 *
+	 * @param inputs Strings to be tested for acceptance.
+	 * @param executor Runs the workers.
+	 * @return the positions in inputs of the accepted strings.
+	 * @throws IllegalArgumentException if some string is null or has
+	 * characters outside the alphabet.
+	 */
+	public BitSet acceptsAll(List<? extends CharSequence> inputs, ExecutorService executor) {
+		return BatchAcceptance.acceptsAll(acceptors(), inputs, executor);
+	}
+
+	/**
+	 * Tests every string of inputs for acceptance. A parallel stream is
+	 * split among its threads.
+	 *
+	 * @param inputs Strings to be tested for acceptance.
+	 * @return the positions, in encounter order, of the accepted strings.
+	 * @throws IllegalArgumentException if some string is null or has
+	 * characters outside the alphabet.
+	 */
+	public BitSet acceptsAll(Stream<? extends CharSequence> inputs) {
+		return BatchAcceptance.acceptsAll(acceptors(), inputs);
+	}
+
+	/**
+	 * Called by the thread that starts a batch, before any worker runs.
+	 * @return a supplier of tests for acceptance, each one with its own
+	 * scratch space and to be used by a single thread.
+	 */
+	abstract Supplier<Predicate<CharSequence>> acceptors();
 }
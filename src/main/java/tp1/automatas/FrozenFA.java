@@ -0,0 +1,42 @@
+package tp1.automatas;
+
+/**
+ * Immutable automaton that can be shared by any number of threads without
+ * locking or copying.
+ *
+ * Implementations keep their states and transitions in final arrays or
+ * read only buffers that are filled before construction ends, so they are
+ * safely published through any reference, even a racy one. Matching only
+ * allocates scratch space local to the call.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public interface FrozenFA {
+
+	/**
+	 * @return number of states.
+	 */
+	int stateCount();
+
+	/**
+	 * @return True iff state s is a final state.
+	 */
+	boolean isAccepting(int s);
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton.
+	 *
+	 * @param input characters to be tested for acceptance.
+	 * @return true iff the automaton accepts input.
+	 * @throws IllegalArgumentException if input is null or has characters
+	 * outside the alphabet.
+	 */
+	boolean accepts(CharSequence input);
+
+	/**
+	 * @return a new matcher at the initial state, to be used by a single
+	 * thread.
+	 */
+	Matcher matcher();
+}
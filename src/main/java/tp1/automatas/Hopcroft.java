@@ -0,0 +1,267 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+
+/**
+ * Hopcroft's partition refinement over a compiled DFA, in O(n k log n) for
+ * n states and k symbol columns.
+ *
+ * The partition is kept in a single array where every block is a range, so
+ * splitting a block only moves the marked states to the front of its range.
+ * The smaller half of every split becomes the new block and is the only
+ * one queued as a splitter.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class Hopcroft {
+
+	private final CompiledDFA dfa;
+
+	private final int width;
+
+	//states in block order, and position of every state in it
+	private final int[] elements;
+	private final int[] location;
+
+	//block of every state, -1 for unreachable states
+	private final int[] block;
+
+	//block b holds elements[first[b] .. past[b]], its marked states first
+	private int[] first;
+	private int[] past;
+	private int[] marked;
+	private int blocks;
+
+	//blocks with marked states
+	private final int[] touched;
+	private int touchedCount;
+
+	//blocks waiting to be used as splitters
+	private int[] pending;
+	private boolean[] queued;
+	private int pendingCount;
+
+	private Hopcroft(CompiledDFA dfa) {
+		int n = dfa.stateCount();
+		this.dfa = dfa;
+		this.width = dfa.width;
+		this.elements = new int[n];
+		this.location = new int[n];
+		this.block = new int[n];
+		this.first = new int[2];
+		this.past = new int[2];
+		this.marked = new int[2];
+		this.touched = new int[n];
+		this.pending = new int[2];
+		this.queued = new boolean[2];
+	}
+
+	/**
+	 * @return the minimal DFA of the language of dfa, with canonical ids.
+	 */
+	static CompiledDFA minimize(CompiledDFA dfa) {
+		return new Hopcroft(dfa).run();
+	}
+
+	private CompiledDFA run() {
+		int n = dfa.stateCount();
+		int[] reachable = reachable();
+		int m = reachable.length;
+
+		// initial partition: final and non final states
+		Arrays.fill(block, -1);
+		int size = 0;
+		for (int i = 0; i < m; i++) {
+			if (dfa.accepting[reachable[i]])
+				elements[size++] = reachable[i];
+		}
+		int finals = size;
+		for (int i = 0; i < m; i++) {
+			if (!dfa.accepting[reachable[i]])
+				elements[size++] = reachable[i];
+		}
+		if (finals > 0)
+			newBlock(0, finals);
+		newBlock(finals, m);
+		for (int i = 0; i < m; i++) {
+			location[elements[i]] = i;
+		}
+		if (blocks == 2)
+			enqueue(finals <= m - finals ? 0 : 1);
+		else
+			enqueue(0);
+
+		// predecessors of t via column are sources[offsets[t * width + column] ..]
+		int[] offsets = new int[n * width + 1];
+		for (int i = 0; i < m; i++) {
+			int s = reachable[i];
+			for (int column = 0; column < width; column++) {
+				offsets[dfa.table[s * width + column] * width + column + 1]++;
+			}
+		}
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i - 1];
+		}
+		int[] sources = new int[offsets[offsets.length - 1]];
+		int[] fill = Arrays.copyOf(offsets, offsets.length - 1);
+		for (int i = 0; i < m; i++) {
+			int s = reachable[i];
+			for (int column = 0; column < width; column++) {
+				sources[fill[dfa.table[s * width + column] * width + column]++] = s;
+			}
+		}
+
+		int[] splitter = new int[m];
+		while (pendingCount > 0) {
+			int b = pending[--pendingCount];
+			queued[b] = false;
+			int count = past[b] - first[b];
+			System.arraycopy(elements, first[b], splitter, 0, count);
+			for (int column = 0; column < width; column++) {
+				for (int i = 0; i < count; i++) {
+					int cell = splitter[i] * width + column;
+					for (int j = offsets[cell]; j < offsets[cell + 1]; j++) {
+						mark(sources[j]);
+					}
+				}
+				split();
+			}
+		}
+		return quotient();
+	}
+
+	/**
+	 * @return the states reachable from the initial one, plus the dead state.
+	 */
+	private int[] reachable() {
+		int n = dfa.stateCount();
+		boolean[] seen = new boolean[n];
+		int[] queue = new int[n];
+		int size = 0;
+		seen[dfa.initial] = true;
+		queue[size++] = dfa.initial;
+		if (!seen[dfa.dead]) {
+			seen[dfa.dead] = true;
+			queue[size++] = dfa.dead;
+		}
+		for (int i = 0; i < size; i++) {
+			int s = queue[i];
+			for (int column = 0; column < width; column++) {
+				int t = dfa.table[s * width + column];
+				if (!seen[t]) {
+					seen[t] = true;
+					queue[size++] = t;
+				}
+			}
+		}
+		return Arrays.copyOf(queue, size);
+	}
+
+	private int newBlock(int from, int to) {
+		if (blocks == first.length) {
+			int capacity = blocks * 2;
+			first = Arrays.copyOf(first, capacity);
+			past = Arrays.copyOf(past, capacity);
+			marked = Arrays.copyOf(marked, capacity);
+			queued = Arrays.copyOf(queued, capacity);
+		}
+		int b = blocks++;
+		first[b] = from;
+		past[b] = to;
+		marked[b] = 0;
+		for (int i = from; i < to; i++) {
+			block[elements[i]] = b;
+		}
+		return b;
+	}
+
+	private void enqueue(int b) {
+		if (queued[b])
+			return;
+		if (pendingCount == pending.length)
+			pending = Arrays.copyOf(pending, pendingCount * 2);
+		pending[pendingCount++] = b;
+		queued[b] = true;
+	}
+
+	/**
+	 * Moves s to the marked part of its block.
+	 */
+	private void mark(int s) {
+		int b = block[s];
+		int i = location[s];
+		int j = first[b] + marked[b];
+		if (i < j)
+			return;
+		int other = elements[j];
+		elements[j] = s;
+		location[s] = j;
+		elements[i] = other;
+		location[other] = i;
+		if (marked[b]++ == 0)
+			touched[touchedCount++] = b;
+	}
+
+	/**
+	 * Splits every touched block into its marked and unmarked parts.
+	 */
+	private void split() {
+		while (touchedCount > 0) {
+			int b = touched[--touchedCount];
+			int middle = first[b] + marked[b];
+			marked[b] = 0;
+			if (middle == past[b])
+				continue;
+			int nb;
+			if (middle - first[b] <= past[b] - middle) {
+				nb = newBlock(first[b], middle);
+				first[b] = middle;
+			} else {
+				nb = newBlock(middle, past[b]);
+				past[b] = middle;
+			}
+			enqueue(nb);
+		}
+	}
+
+	/**
+	 * Builds the automaton of the blocks, numbered in breadth first order
+	 * from the initial block following the columns in order. The block of
+	 * the dead state goes last.
+	 */
+	private CompiledDFA quotient() {
+		int deadBlock = block[dfa.dead];
+		int[] id = new int[blocks];
+		Arrays.fill(id, -1);
+		int[] order = new int[blocks];
+		int size = 0;
+		id[deadBlock] = blocks - 1;
+		if (block[dfa.initial] != deadBlock) {
+			id[block[dfa.initial]] = size;
+			order[size++] = block[dfa.initial];
+		}
+		for (int i = 0; i < size; i++) {
+			int representative = elements[first[order[i]]];
+			for (int column = 0; column < width; column++) {
+				int b = block[dfa.table[representative * width + column]];
+				if (id[b] < 0) {
+					id[b] = size;
+					order[size++] = b;
+				}
+			}
+		}
+
+		int[] table = new int[blocks * width];
+		boolean[] accepting = new boolean[blocks];
+		for (int b = 0; b < blocks; b++) {
+			int representative = elements[first[b]];
+			int s = id[b];
+			accepting[s] = dfa.accepting[representative];
+			for (int column = 0; column < width; column++) {
+				table[s * width + column] = id[block[dfa.table[representative * width + column]]];
+			}
+		}
+		return new CompiledDFA(dfa.symbols, id[block[dfa.initial]], table, accepting, new String[blocks]);
+	}
+}
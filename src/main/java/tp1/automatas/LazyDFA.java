@@ -0,0 +1,207 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matcher that determinizes a compiled NFA on the fly.
+ *
+ * Subset states are created only when some input reaches them, and their
+ * transitions are cached in a table, so repeated traffic runs at DFA speed
+ * without ever building the whole subset automaton. The cache holds at most
+ * maxStates subsets: when it is full it is flushed and filled again from
+ * the current subset. An input that has flushed the cache
+ * FLUSHES_BEFORE_FALLBACK times finishes on plain set simulation.
+ *
+ * Instances are not thread safe, every thread should use its own one.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class LazyDFA {
+
+	static final int FLUSHES_BEFORE_FALLBACK = 4;
+
+	//table cell whose transition has not been computed yet
+	private static final int UNKNOWN = -1;
+
+	private final CompiledNFA nfa;
+
+	private final int maxStates;
+
+	private final int width;
+
+	private final Map<Subset, Integer> ids = new HashMap<Subset, Integer>();
+
+	//subset and acceptance of every cached state
+	private long[][] sets;
+	private boolean[] accepting;
+
+	//table[s * width + column] is the successor of s, or UNKNOWN
+	private int[] table;
+
+	private int count;
+
+	//cached ids of the initial subset and of the empty subset, -1 when absent
+	private int start = -1;
+	private int dead = -1;
+
+	private long flushes;
+
+	//scratch space for the set simulation
+	private final long[] current;
+	private final long[] next;
+	private final int[] stack;
+
+	/**
+	 * @param nfa automaton to be determinized.
+	 * @param maxStates maximum number of subset states kept in the cache.
+	 */
+	public LazyDFA(CompiledNFA nfa, int maxStates) {
+		if (maxStates < 2)
+			throw new IllegalArgumentException("The cache must hold at least two states");
+		this.nfa = nfa;
+		this.maxStates = maxStates;
+		this.width = nfa.width;
+		this.current = new long[nfa.words];
+		this.next = new long[nfa.words];
+		this.stack = nfa.newStack();
+		int capacity = Math.min(maxStates, 16);
+		this.sets = new long[capacity][];
+		this.accepting = new boolean[capacity];
+		this.table = new int[capacity * width];
+	}
+
+	/**
+	 * @return number of subset states currently cached.
+	 */
+	public int cachedStates() {
+		return count;
+	}
+
+	/**
+	 * @return number of times the cache has been flushed.
+	 */
+	public long flushes() {
+		return flushes;
+	}
+
+	/**
+	 * Tests whether a string belongs to the language of the automaton.
+	 *
+	 * @param input characters to be tested for acceptance.
+	 * @return true iff the automaton accepts input.
+	 */
+	public boolean accepts(CharSequence input) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+
+		long flushed = flushes;
+		if (start < 0) {
+			nfa.start(current, stack);
+			start = add(current.clone());
+		}
+		int s = start;
+		int n = input.length();
+		for (int i = 0; i < n; i++) {
+			int column = nfa.symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			int t = table[s * width + column];
+			if (t == UNKNOWN) {
+				if (flushes - flushed >= FLUSHES_BEFORE_FALLBACK)
+					return simulate(input, i, sets[s]);
+				t = transition(s, column);
+			}
+			s = t;
+			if (s == dead) {
+				for (i++; i < n; i++) {
+					if (nfa.symbols.column(input.charAt(i)) < 0)
+						throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+				}
+				return false;
+			}
+		}
+		return accepting[s];
+	}
+
+	/**
+	 * Finishes the input from position i with set simulation, starting from
+	 * the given subset.
+	 */
+	private boolean simulate(CharSequence input, int i, long[] from) {
+		long[] a = current;
+		long[] b = next;
+		System.arraycopy(from, 0, a, 0, from.length);
+		int n = input.length();
+		for (; i < n; i++) {
+			int column = nfa.symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			if (!nfa.step(a, column, b, stack)) {
+				for (i++; i < n; i++) {
+					if (nfa.symbols.column(input.charAt(i)) < 0)
+						throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+				}
+				return false;
+			}
+			long[] swap = a;
+			a = b;
+			b = swap;
+		}
+		return nfa.intersectsAccepting(a);
+	}
+
+	/**
+	 * Computes, caches and returns the successor of the cached state s.
+	 */
+	private int transition(int s, int column) {
+		nfa.step(sets[s], column, next, stack);
+		Integer known = ids.get(new Subset(next));
+		if (known != null) {
+			table[s * width + column] = known;
+			return known;
+		}
+		long flushed = flushes;
+		int t = add(next.clone());
+		if (flushes == flushed)
+			table[s * width + column] = t;
+		return t;
+	}
+
+	/**
+	 * Caches a new subset state, flushing the cache first when it is full.
+	 * @return its id.
+	 */
+	private int add(long[] bits) {
+		if (count == maxStates)
+			flush();
+		if (count == sets.length) {
+			int capacity = Math.min(maxStates, count * 2);
+			sets = Arrays.copyOf(sets, capacity);
+			accepting = Arrays.copyOf(accepting, capacity);
+			table = Arrays.copyOf(table, capacity * width);
+		}
+		int id = count++;
+		Subset key = new Subset(bits);
+		ids.put(key, id);
+		sets[id] = bits;
+		accepting[id] = nfa.intersectsAccepting(bits);
+		Arrays.fill(table, id * width, (id + 1) * width, UNKNOWN);
+		if (key.isEmpty())
+			dead = id;
+		return id;
+	}
+
+	/**
+	 * Drops every cached state.
+	 */
+	private void flush() {
+		ids.clear();
+		Arrays.fill(sets, 0, count, null);
+		count = 0;
+		start = -1;
+		dead = -1;
+		flushes++;
+	}
+}
@@ -0,0 +1,154 @@
+package tp1.automatas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Resumable run of an automaton over an input given in pieces. Characters
+ * are fed as they arrive and the matcher tells at any point whether the
+ * input read so far is accepted, so inputs of any length are checked in
+ * constant memory.
+ *
+ * Like accepts, feeding a character outside the alphabet throws an
+ * IllegalArgumentException, even after the matcher is dead. A matcher is
+ * meant to be used by a single thread.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public abstract class Matcher {
+
+	//characters read at a time by the drain helpers
+	private static final int BUFFER = 8192;
+
+	Matcher() {
+	}
+
+	/**
+	 * Advances the matcher over c.
+	 * @throws IllegalArgumentException if c does not belong to the alphabet.
+	 */
+	public abstract void feed(char c);
+
+	/**
+	 * Advances the matcher over input[from, to).
+	 * @throws IllegalArgumentException if some character does not belong to
+	 * the alphabet.
+	 */
+	public void feed(CharSequence input, int from, int to) {
+		checkRange(input, from, to);
+		for (int i = from; i < to; i++) {
+			feed(input.charAt(i));
+		}
+	}
+
+	/**
+	 * Advances the matcher over the remaining characters of input, leaving
+	 * its position at its limit.
+	 * @throws IllegalArgumentException if some character does not belong to
+	 * the alphabet.
+	 */
+	public void feed(CharBuffer input) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+		// charAt is relative to the position of the buffer
+		feed(input, 0, input.remaining());
+		((Buffer) input).position(input.limit());
+	}
+
+	/**
+	 * @return true iff the input fed so far is accepted.
+	 */
+	public abstract boolean isAccepting();
+
+	/**
+	 * @return true iff no continuation of the input fed so far can be
+	 * accepted, as far as the automaton tells by having no state left to go.
+	 */
+	public abstract boolean isDead();
+
+	/**
+	 * Goes back to the initial state, as if no input had been fed.
+	 */
+	public abstract void reset();
+
+	/**
+	 * Feeds matcher with the characters of in, in fixed size chunks, until
+	 * the end of in or until the matcher is dead. The rest of the input is
+	 * not read once the matcher is dead.
+	 * @return true iff the matcher accepts after the input read.
+	 */
+	public static boolean drain(Matcher matcher, Reader in) throws IOException {
+		CharBuffer chunk = CharBuffer.allocate(BUFFER);
+		while (!matcher.isDead() && in.read(chunk) >= 0) {
+			feed(matcher, chunk);
+		}
+		return matcher.isAccepting();
+	}
+
+	/**
+	 * Feeds matcher with the characters of in, decoded with charset, in
+	 * fixed size chunks, until the end of in or until the matcher is dead.
+	 * The rest of the input is not read once the matcher is dead.
+	 * @return true iff the matcher accepts after the input read.
+	 * @throws CharacterCodingException if the bytes are not valid in charset.
+	 */
+	public static boolean drain(Matcher matcher, ReadableByteChannel in, Charset charset) throws IOException {
+		CharsetDecoder decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPORT)
+				.onUnmappableCharacter(CodingErrorAction.REPORT);
+		ByteBuffer bytes = ByteBuffer.allocate(BUFFER);
+		CharBuffer chunk = CharBuffer.allocate(BUFFER);
+		boolean end = false;
+		while (!end && !matcher.isDead()) {
+			end = in.read(bytes) < 0;
+			((Buffer) bytes).flip();
+			CoderResult result;
+			do {
+				result = decoder.decode(bytes, chunk, end);
+				if (result.isError())
+					result.throwException();
+				feed(matcher, chunk);
+			} while (result.isOverflow());
+			bytes.compact();
+		}
+		if (end) {
+			CoderResult result;
+			do {
+				result = decoder.flush(chunk);
+				feed(matcher, chunk);
+			} while (result.isOverflow());
+		}
+		return matcher.isAccepting();
+	}
+
+	/**
+	 * Like drain(matcher, channel, charset), reading from a stream.
+	 */
+	public static boolean drain(Matcher matcher, InputStream in, Charset charset) throws IOException {
+		return drain(matcher, Channels.newChannel(in), charset);
+	}
+
+	// feeds the characters written to chunk and clears it
+	private static void feed(Matcher matcher, CharBuffer chunk) {
+		((Buffer) chunk).flip();
+		matcher.feed(chunk);
+		((Buffer) chunk).clear();
+	}
+
+	static void checkRange(CharSequence input, int from, int to) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+		if (from < 0 || to > input.length() || from > to)
+			throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ")");
+	}
+}
@@ -0,0 +1,220 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Several DFAs combined into one, so that a single pass over an input
+ * tells which of them accept it.
+ *
+ * The combined automaton is the product of the patterns, each one
+ * minimized first, over the union of their alphabets: a symbol missing
+ * from a pattern sends it to its dead state. Only the tuples reachable
+ * from the initial states are built, tuples where every pattern is dead
+ * are folded into the dead state, and every state is labeled with the ids
+ * of the patterns that accept in it, ids being positions in the list the
+ * automaton was built from.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class MultiPatternDFA {
+
+	//default bound on the number of states of the product
+	public static final int DEFAULT_MAX_STATES = 1 << 20;
+
+	private final int patternCount;
+
+	//the product, accepting where some pattern accepts
+	private final CompiledDFA combined;
+
+	//distinct sets of accepting pattern ids, in ascending order; labels[0] is empty
+	private final int[][] labels;
+
+	//labels[labelOf[s]] are the patterns accepting in state s
+	private final int[] labelOf;
+
+	public MultiPatternDFA(List<? extends DFA> patterns) throws AutomatonException {
+		this(patterns, DEFAULT_MAX_STATES);
+	}
+
+	/**
+	 * @param maxStates bound on the number of states of the combined
+	 * automaton.
+	 * @throws AutomatonException if the product has more than maxStates
+	 * states.
+	 */
+	public MultiPatternDFA(List<? extends DFA> patterns, int maxStates) throws AutomatonException {
+		this(compile(patterns), maxStates);
+	}
+
+	MultiPatternDFA(CompiledDFA[] patterns, int maxStates) throws AutomatonException {
+		int n = patterns.length;
+		this.patternCount = n;
+		SymbolMap symbols = SymbolMap.identity(new char[0]);
+		for (int p = 0; p < n; p++) {
+			patterns[p] = patterns[p].minimize();
+			symbols = Product.union(symbols, patterns[p].symbols);
+		}
+		int width = symbols.width;
+		int[][] columns = new int[n][width];
+		for (int p = 0; p < n; p++) {
+			for (int i = 0; i < width; i++) {
+				columns[p][i] = patterns[p].symbols.column(symbols.symbols[i]);
+			}
+		}
+
+		// components of every discovered tuple, n ints per tuple
+		int[] tuples = new int[16 * n];
+		int count = 0;
+		int[] table = new int[16 * width];
+		Map<Subset, Integer> ids = new HashMap<Subset, Integer>();
+
+		int[] next = new int[n];
+		for (int p = 0; p < n; p++) {
+			next[p] = patterns[p].initial;
+		}
+		if (!allDead(patterns, next)) {
+			System.arraycopy(next, 0, tuples, 0, n);
+			ids.put(Subset.of(next), 0);
+			count = 1;
+		}
+
+		for (int s = 0; s < count; s++) {
+			if ((s + 1) * width > table.length)
+				table = Arrays.copyOf(table, table.length * 2);
+			for (int i = 0; i < width; i++) {
+				for (int p = 0; p < n; p++) {
+					CompiledDFA pattern = patterns[p];
+					int column = columns[p][i];
+					next[p] = column < 0 ? pattern.dead : pattern.table[tuples[s * n + p] * pattern.width + column];
+				}
+				if (allDead(patterns, next)) {
+					table[s * width + i] = -1;
+					continue;
+				}
+				Subset key = Subset.of(next);
+				Integer known = ids.get(key);
+				int t;
+				if (known != null) {
+					t = known;
+				} else {
+					if (count == maxStates)
+						throw new AutomatonException("The combined automaton has more than " + maxStates + " states");
+					if ((count + 1) * n > tuples.length)
+						tuples = Arrays.copyOf(tuples, tuples.length * 2);
+					t = count++;
+					System.arraycopy(next, 0, tuples, t * n, n);
+					ids.put(key, t);
+				}
+				table[s * width + i] = t;
+			}
+		}
+
+		int states = count + 1;
+		int deadState = count;
+		table = Arrays.copyOf(table, states * width);
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] < 0 || i >= deadState * width)
+				table[i] = deadState;
+		}
+
+		// labels are keyed by the set of accepted patterns
+		Map<Subset, Integer> labelIds = new HashMap<Subset, Integer>();
+		int[][] labels = new int[16][];
+		labels[0] = new int[0];
+		labelIds.put(new Subset(new long[(n + 63) >>> 6]), 0);
+		int labelCount = 1;
+		this.labelOf = new int[states];
+		boolean[] accepting = new boolean[states];
+		int[] accepted = new int[n];
+		for (int s = 0; s < count; s++) {
+			int k = 0;
+			long[] bits = new long[(n + 63) >>> 6];
+			for (int p = 0; p < n; p++) {
+				if (patterns[p].accepting[tuples[s * n + p]]) {
+					accepted[k++] = p;
+					bits[p >>> 6] |= 1L << p;
+				}
+			}
+			Subset label = new Subset(bits);
+			Integer id = labelIds.get(label);
+			if (id == null) {
+				if (labelCount == labels.length)
+					labels = Arrays.copyOf(labels, labelCount * 2);
+				id = labelCount++;
+				labels[id] = Arrays.copyOf(accepted, k);
+				labelIds.put(label, id);
+			}
+			labelOf[s] = id;
+			accepting[s] = k > 0;
+		}
+		this.labels = Arrays.copyOf(labels, labelCount);
+		this.combined = new CompiledDFA(symbols, count == 0 ? deadState : 0, table, accepting, new String[states]);
+	}
+
+	/**
+	 * @return number of patterns combined.
+	 */
+	public int patternCount() {
+		return patternCount;
+	}
+
+	/**
+	 * @return number of states of the combined automaton, dead state
+	 * included.
+	 */
+	public int stateCount() {
+		return combined.stateCount();
+	}
+
+	/**
+	 * @return the ids of the patterns accepting input, in ascending order.
+	 * @throws IllegalArgumentException if input is null or has characters
+	 * outside the alphabets of all patterns.
+	 */
+	public int[] matches(CharSequence input) {
+		return labels[labelOf[combined.run(input)]].clone();
+	}
+
+	/**
+	 * @return the set of ids of the patterns accepting input.
+	 * @throws IllegalArgumentException if input is null or has characters
+	 * outside the alphabets of all patterns.
+	 */
+	public BitSet matchSet(CharSequence input) {
+		BitSet set = new BitSet(patternCount);
+		for (int p : labels[labelOf[combined.run(input)]]) {
+			set.set(p);
+		}
+		return set;
+	}
+
+	/**
+	 * @return true iff some pattern accepts input.
+	 */
+	public boolean matchesAny(CharSequence input) {
+		return combined.accepts(input);
+	}
+
+	private static CompiledDFA[] compile(List<? extends DFA> patterns) {
+		if (patterns == null || patterns.isEmpty())
+			throw new IllegalArgumentException("At least one pattern is needed");
+		CompiledDFA[] compiled = new CompiledDFA[patterns.size()];
+		for (int p = 0; p < compiled.length; p++) {
+			compiled[p] = patterns.get(p).compile();
+		}
+		return compiled;
+	}
+
+	private static boolean allDead(CompiledDFA[] patterns, int[] states) {
+		for (int p = 0; p < patterns.length; p++) {
+			if (states[p] != patterns[p].dead)
+				return false;
+		}
+		return true;
+	}
+}
@@ -1,6 +1,8 @@
 package tp1.automatas;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import tp1.utils.Tupla;
 
@@ -14,8 +16,9 @@ public class NFA extends FA {
 	public NFA(StateSet states, Alphabet alphabet, Set<Tupla<State,Character,State>> transitions) 
 	throws IllegalArgumentException, AutomatonException{
 		this.states = states;
+		states.watch();
 		this.alphabet = alphabet;
-		this.delta = new HashMap<State, HashMap<Character, StateSet>>();
+		this.delta = newDelta();
 		
 		HashMap<Character, StateSet> stateArcs;
 		StateSet currentStateSet;
@@ -32,7 +35,7 @@ public class NFA extends FA {
 				if (this.delta.containsKey(tupla.first())) {
 					stateArcs = this.delta.get(tupla.first());
 				} else {
-					stateArcs =  new HashMap<Character, StateSet>();
+					stateArcs = newArcs();
 				}
 				//Gets the StateSet mapped for the current char
 				if (stateArcs.containsKey(tupla.second())) {
@@ -50,38 +53,60 @@ public class NFA extends FA {
 		//assert repOk();
 	}
 
+	/**
+	 * Simulates the compiled form of the automaton, stepping through its
+	 * table of successor masks when it has one. It is kept between calls and
+	 * compiled again only after the automaton changed, so changes are
+	 * always seen.
+	 */
 	@Override
 	public boolean accepts(String string) throws AutomatonException {
 		//assert repOk();
-		if (string == null) throw new IllegalArgumentException("String can't be null");
-		if (!verifyString(string)) throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
-		if(string == "" && initialState().isFinal()) return true;
-		
-		Stack<Tupla<State, Integer, Integer>> p = new Stack<Tupla<State, Integer, Integer>>();
-		p.push(new Tupla<State,Integer,Integer>(initialState(), 0, null));
+		return masks().accepts(string);
+	}
 
-		while (!p.empty()) {
+	/**
+	 * @return the compiled form of the automaton as it is now, shared
+	 * between calls until the automaton changes.
+	 */
+	private CompiledNFA masks() {
+		return (CompiledNFA) compiled();
+	}
 
-			Tupla<State,Integer,Integer> t = p.pop();
-			if((t.first().isFinal()) && (string.length()==t.second())) {
-				return true;
-			} else if(string.length()<t.second()) {
-				return false;
-			}
+	/**
+	 * Compiles the automaton into an immutable array based form that decides
+	 * acceptance by simulating all paths at once. Every call compiles again,
+	 * and the result is a snapshot: later changes to the automaton are not
+	 * reflected in it.
+	 * @return the compiled form of this automaton.
+	 */
+	public CompiledNFA compile() {
+		return CompiledNFA.of(this);
+	}
 
-			StateSet ss = new StateSet();
-			try {
-				ss = delta(t.first(), string.charAt(t.second()));
-			} catch (Exception e) {
-				continue;
-			}
+	@Override
+	public CompiledNFA freeze() {
+		return CompiledNFA.of(this);
+	}
 
-			for (State s : ss) {
-				p.push(new Tupla<State,Integer,Integer>(s, t.second()+1, null));
-			}
-		}
+	@Override
+	public Matcher matcher() {
+		return masks().matcher();
+	}
+
+	@Override
+	Supplier<Predicate<CharSequence>> acceptors() {
+		return masks()::acceptor;
+	}
 
-		return false;
+	/**
+	 * Builds a matcher that determinizes this automaton lazily, creating
+	 * subset states only as inputs reach them.
+	 * @param maxStates maximum number of subset states kept in the cache.
+	 * @return a new matcher, to be used by a single thread.
+	 */
+	public LazyDFA lazyDFA(int maxStates) {
+		return new LazyDFA(compile(), maxStates);
 	}
 
 	/**
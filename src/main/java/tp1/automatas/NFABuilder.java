@@ -0,0 +1,207 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+
+/**
+ * Bulk builder for compiled nondeterministic automata, lambda arcs
+ * included.
+ *
+ * States are dense ints handed out by addState, and symbols are the
+ * positions of the alphabet symbols in ascending order, with LAMBDA for
+ * lambda arcs. Transitions are kept as three growing int arrays and are
+ * validated as they are added, so no object is built per arc.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class NFABuilder {
+
+	//symbol of lambda arcs
+	public static final int LAMBDA = -1;
+
+	private final SymbolMap symbols;
+
+	private int count;
+
+	private int initial = -1;
+
+	private boolean[] accepting = new boolean[16];
+
+	//names given to states, null until some state gets one
+	private String[] names;
+
+	//transition i is from[i] --column[i]--> to[i], column LAMBDA for lambda arcs
+	private int[] from = new int[16];
+	private int[] column = new int[16];
+	private int[] to = new int[16];
+	private int arcs;
+
+	private int lambdaArcs;
+
+	public NFABuilder(Alphabet alphabet) {
+		this(SymbolMap.of(alphabet));
+	}
+
+	NFABuilder(SymbolMap symbols) {
+		this.symbols = symbols;
+	}
+
+	/**
+	 * @return number of symbols of the alphabet.
+	 */
+	public int symbolCount() {
+		return symbols.symbols.length;
+	}
+
+	/**
+	 * @return the symbol index of c, or -1 when c does not belong to the alphabet.
+	 */
+	public int symbol(char c) {
+		int i = Arrays.binarySearch(symbols.symbols, c);
+		return i < 0 ? -1 : i;
+	}
+
+	/**
+	 * @return number of states added so far.
+	 */
+	public int stateCount() {
+		return count;
+	}
+
+	/**
+	 * Adds a non final state.
+	 * @return its id.
+	 */
+	public int addState() {
+		return addStates(1);
+	}
+
+	/**
+	 * Adds n non final states with consecutive ids.
+	 * @return id of the first one.
+	 */
+	public int addStates(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Invalid number of states");
+		int first = count;
+		int needed = count + n;
+		if (needed > accepting.length) {
+			int capacity = Math.max(needed, accepting.length * 2);
+			accepting = Arrays.copyOf(accepting, capacity);
+			if (names != null)
+				names = Arrays.copyOf(names, capacity);
+		}
+		count = needed;
+		return first;
+	}
+
+	public NFABuilder setInitial(int s) {
+		checkState(s);
+		initial = s;
+		return this;
+	}
+
+	public NFABuilder setFinal(int s, boolean isFinal) {
+		checkState(s);
+		accepting[s] = isFinal;
+		return this;
+	}
+
+	public NFABuilder setName(int s, String name) {
+		checkState(s);
+		if (names == null)
+			names = new String[accepting.length];
+		names[s] = name;
+		return this;
+	}
+
+	/**
+	 * Adds the transition from --symbol--> to, a lambda arc when symbol is
+	 * LAMBDA.
+	 * @throws IllegalArgumentException if a state or the symbol does not exist.
+	 */
+	public NFABuilder addTransition(int from, int symbol, int to) {
+		checkState(from);
+		checkState(to);
+		int c;
+		if (symbol == LAMBDA) {
+			c = LAMBDA;
+			lambdaArcs++;
+		} else if (symbol >= 0 && symbol < symbols.symbols.length) {
+			c = symbols.columnAt(symbol);
+		} else {
+			throw new IllegalArgumentException("Transition's symbol must belong to the alphabet");
+		}
+		if (arcs == this.from.length) {
+			int capacity = arcs * 2;
+			this.from = Arrays.copyOf(this.from, capacity);
+			this.column = Arrays.copyOf(this.column, capacity);
+			this.to = Arrays.copyOf(this.to, capacity);
+		}
+		this.from[arcs] = from;
+		this.column[arcs] = c;
+		this.to[arcs] = to;
+		arcs++;
+		return this;
+	}
+
+	public NFABuilder addTransition(int from, char c, int to) {
+		int symbol = symbol(c);
+		if (symbol < 0)
+			throw new IllegalArgumentException("Transition's symbol must belong to the alphabet");
+		return addTransition(from, symbol, to);
+	}
+
+	/**
+	 * Adds a lambda arc from --> to.
+	 */
+	public NFABuilder addLambda(int from, int to) {
+		return addTransition(from, LAMBDA, to);
+	}
+
+	/**
+	 * Freezes the states and transitions added so far, computing the lambda
+	 * closures. The builder can still be used afterwards.
+	 * @return an immutable compiled automaton.
+	 */
+	public CompiledNFA build() {
+		int n = count;
+		int width = symbols.width;
+		int[] offsets = new int[n * width + 1];
+		int[] lambdaOffsets = lambdaArcs > 0 ? new int[n + 1] : null;
+		for (int i = 0; i < arcs; i++) {
+			if (column[i] == LAMBDA)
+				lambdaOffsets[from[i] + 1]++;
+			else
+				offsets[from[i] * width + column[i] + 1]++;
+		}
+		for (int i = 1; i < offsets.length; i++) {
+			offsets[i] += offsets[i - 1];
+		}
+		if (lambdaOffsets != null) {
+			for (int i = 1; i < lambdaOffsets.length; i++) {
+				lambdaOffsets[i] += lambdaOffsets[i - 1];
+			}
+		}
+
+		int[] targets = new int[arcs - lambdaArcs];
+		int[] lambdaTargets = lambdaOffsets != null ? new int[lambdaArcs] : null;
+		int[] fill = Arrays.copyOf(offsets, offsets.length - 1);
+		int[] lambdaFill = lambdaOffsets != null ? Arrays.copyOf(lambdaOffsets, n) : null;
+		for (int i = 0; i < arcs; i++) {
+			if (column[i] == LAMBDA)
+				lambdaTargets[lambdaFill[from[i]]++] = to[i];
+			else
+				targets[fill[from[i] * width + column[i]]++] = to[i];
+		}
+
+		String[] frozenNames = names == null ? new String[n] : Arrays.copyOf(names, n);
+		return new CompiledNFA(symbols, initial, Arrays.copyOf(accepting, n), offsets, targets,
+				lambdaOffsets, lambdaTargets, frozenNames);
+	}
+
+	private void checkState(int s) {
+		if (s < 0 || s >= count)
+			throw new IllegalArgumentException("Invalid state!");
+	}
+}
@@ -1,6 +1,8 @@
 package tp1.automatas;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import tp1.utils.Tupla;
 
 /**
@@ -13,8 +15,9 @@ public class NFALambda extends FA {
 	public NFALambda(StateSet states,	Alphabet alphabet, Set<Tupla<State,Character,State>> transitions) 
 	throws IllegalArgumentException, AutomatonException{
 		this.states = states;
+		states.watch();
 		this.alphabet = alphabet;
-		this.delta = new HashMap<State, HashMap<Character, StateSet>>();
+		this.delta = newDelta();
 		
 		HashMap<Character, StateSet> stateArcs;
 		StateSet currentStateSet;
@@ -28,7 +31,7 @@ public class NFALambda extends FA {
 				if (this.delta.containsKey(tupla.first())) {
 					stateArcs = this.delta.get(tupla.first());
 				} else {
-					stateArcs =  new HashMap<Character, StateSet>();
+					stateArcs = newArcs();
 				}
 				//Gets the StateSet mapped for the current char
 				if (stateArcs.containsKey(tupla.second())) {
@@ -46,49 +49,59 @@ public class NFALambda extends FA {
 		//assert repOk();
 	}
 
+	/**
+	 * Simulates the compiled form of the automaton, whose lambda closures
+	 * are computed once per strongly connected component. It is kept
+	 * between calls and compiled again only after the automaton changed, so
+	 * changes are always seen.
+	 */
 	@Override
 	public boolean accepts(String string) throws AutomatonException, CloneNotSupportedException {
 		//assert repOk();
-		if (string == null) throw new IllegalArgumentException("String can't be null");
-		if (!verifyString(string)) 
-			throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
-		
-		Stack<Tupla<State, Integer, Integer>> p = new Stack<Tupla<State, Integer, Integer>>();
-		p.push(new Tupla<State,Integer,Integer>(initialState(), 0, null));
-
-		while (!p.empty()) {
-
-			Tupla<State,Integer,Integer> t = p.pop();
-			if((t.first().isFinal()) && (string.length()==t.second())) {
-				return true;
-			} else if(string.length()<t.second()) {
-				return false;
-			}
-			
-			StateSet ssl = new StateSet();
-			try {
-				ssl = delta(t.first(), null);
-			} catch (Exception e) {
+		return closures().accepts(string);
+	}
 
-			}
+	/**
+	 * @return the compiled form of the automaton as it is now, shared
+	 * between calls until the automaton changes.
+	 */
+	private CompiledNFA closures() {
+		return (CompiledNFA) compiled();
+	}
 
-			for (State sl : ssl) {
-				p.push(new Tupla<State,Integer,Integer>(sl, t.second(), null));
-			}
+	/**
+	 * Compiles the automaton into an array based form with its lambda
+	 * closures precomputed. Every call compiles again, and the result is a
+	 * snapshot: later changes to the automaton are not reflected in it.
+	 * @return the compiled form of this automaton.
+	 */
+	public CompiledNFA compile() {
+		return CompiledNFA.of(this);
+	}
 
-			StateSet ss = new StateSet();
-			try {
-				ss = delta(t.first(), string.charAt(t.second()));
-			} catch (Exception e) {
+	@Override
+	public CompiledNFA freeze() {
+		return CompiledNFA.of(this);
+	}
 
-			}
+	@Override
+	public Matcher matcher() {
+		return closures().matcher();
+	}
 
-			for (State s : ss) {
-				p.push(new Tupla<State,Integer,Integer>(s, t.second()+1, null));
-			}
-		}
+	@Override
+	Supplier<Predicate<CharSequence>> acceptors() {
+		return closures()::acceptor;
+	}
 
-		return false;
+	/**
+	 * Builds a matcher that determinizes this automaton lazily, creating
+	 * subset states only as inputs reach them.
+	 * @param maxStates maximum number of subset states kept in the cache.
+	 * @return a new matcher, to be used by a single thread.
+	 */
+	public LazyDFA lazyDFA(int maxStates) {
+		return new LazyDFA(compile(), maxStates);
 	}
 
 	/**
@@ -153,31 +166,13 @@ public class NFALambda extends FA {
 		Set<Tupla<State, Character, State>> t = new HashSet<Tupla<State, Character, State>>();
 
 		for (State s : states) {
-			StateSet setL = new StateSet();
-			
-			try {
-				setL = delta(s, null);
-				if(setL.size() > 0) {
-					for (State s2 : setL) {
-						t.add(new Tupla<State,Character,State>(s.cloneState(), null, s2.cloneState()));
-					}
-				}
-			} catch (Exception e) {
-
+			for (State s2 : successors(s, null)) {
+				t.add(new Tupla<State,Character,State>(s.cloneState(), null, s2.cloneState()));
 			}
 			
 			for (Character c : alphabet) {
-				StateSet setD = new StateSet();
-				
-				try {
-					setD = delta(s, c);
-					if(setD.size() > 0) {
-						for (State s3 : setD) {
-							t.add(new Tupla<State,Character,State>(s.cloneState(), c, s3.cloneState()));
-						}
-					}
-				} catch (Exception e) {
-					continue;
+				for (State s3 : successors(s, c)) {
+					t.add(new Tupla<State,Character,State>(s.cloneState(), c, s3.cloneState()));
 				}
 			}
 		}
@@ -186,111 +181,80 @@ public class NFALambda extends FA {
 	}
 	
 	/**
-	 * Converts the automaton to a DFA.
+	 * Converts the automaton to a DFA by subset construction over the
+	 * precomputed lambda closures. Only subsets reachable from the initial
+	 * one are built, numbered q0, q1, ... in discovery order.
 	 * @throws AutomatonException
 	 * @throws CloneNotSupportedException
 	 * @return DFA recognizing the same language.
 	 */
 	public DFA toDFA() throws AutomatonException, CloneNotSupportedException {
-		
-		NFALambda nfal = this.cloneNFALambda();
-
-		Set<Tupla<Queue<State>, Character, Queue<State>>> transitions = new HashSet<Tupla<Queue<State>, Character, Queue<State>>>();
-
-		Queue<State> q = new LinkedList<State>();
-		Queue<Queue<State>> t = new LinkedList<Queue<State>>();
-		Queue<Queue<State>> visit = new LinkedList<Queue<State>>();
-
-		q.add(nfal.initialState());
-
-		t.add(nfal.closure(q));
-
-		while (!t.isEmpty()) {
-			Queue<State> s = t.poll();
-			if(!visit.contains(s)) {
-				visit.add(s);
-				for (Character c : nfal.alphabet) {
-					Queue<State> m = new LinkedList<State>();
-					m = nfal.closure(nfal.move(s, c));
-					if(!m.isEmpty()) {
-						if(!t.contains(m)) {
-							t.add(m);
-						}
-						transitions.add(new Tupla<Queue<State>,Character,Queue<State>>(s, c, m));
-					}
-				}
-			} else {
-				continue;
-			}
-		}
-
-		Tupla<StateSet, Set<Tupla<State, Character, State>>, Character> build = nfal.buildTransitions(transitions, visit);
-
-		DFA dfa = new DFA(build.first().cloneSS(), nfal.alphabet.cloneAlpha(), build.second());
-
-		return dfa;
+		return compile().determinize().toDFA();
 	}
 
 	
 	/**
 	 * Move takes a set of states and a symbol from the alphabet and returns the set of states reachable by the given symbol
+	 * Runs over the cached compiled form. States missing from the state
+	 * set of the automaton are left out.
 	 * @param q Queue<State> used as starting point
-	 * @param a alphabet symbol
+	 * @param a alphabet symbol, or null for lambda
 	 * @throws AutomatonException
 	 * @throws CloneNotSupportedException
 	 * @return set of states reachable by the given symbol
 	 */
 	public Queue<State> move(Queue<State> q, Character a) throws CloneNotSupportedException, AutomatonException {
-		
-		Queue<State> qss = new LinkedList<State>();
-
+		CompiledNFA nfa = closures();
+		long[] set = new long[nfa.words];
 		for (State s : q) {
-			try {
-				StateSet auxss = new StateSet();
-				auxss = delta(s, a);
-				for (State auxs : auxss) {
-					qss.add(auxs);
-				}
-			} catch (Exception e) {
+			int id = states.indexOf(s.getName());
+			if (id < 0)
 				continue;
+			int start = a == null ? nfa.lambdaStart(id) : nfa.arcStart(id, a);
+			int end = a == null ? nfa.lambdaEnd(id) : nfa.arcEnd(id, a);
+			for (int i = start; i < end; i++) {
+				int t = a == null ? nfa.lambdaTarget(i) : nfa.arcTarget(i);
+				set[t >>> 6] |= 1L << t;
 			}
 		}
+		return members(set);
+	}
 
-		return qss;
-
-    }
-	
 	/**
 	 * Lambda closure takes a set of states and returns the set of reachable states taking only "lambda" transitions
+	 * Uses the closures precomputed by the cached compiled form. States
+	 * missing from the state set of the automaton are left out.
 	 * @param q Queue<State> used as starting point
 	 * @throws AutomatonException
 	 * @throws CloneNotSupportedException
 	 * @return Queue<State> with the States reached by "lambda", starting from q
 	 */
 	public Queue<State> closure(Queue<State> q) throws CloneNotSupportedException, AutomatonException {
-		
-		Queue<State> qss = new LinkedList<State>();
-		Queue<State> auxQ = new LinkedList<State>();
-
+		CompiledNFA nfa = closures();
+		long[] set = new long[nfa.words];
+		int[] stack = nfa.newStack();
 		for (State s : q) {
-			auxQ.add(s);
+			int id = states.indexOf(s.getName());
+			if (id >= 0 && (set[id >>> 6] & (1L << id)) == 0L)
+				nfa.enter(id, set, stack);
 		}
+		return members(set);
+	}
 
-		while (!auxQ.isEmpty()) {
-			State s = auxQ.poll();
-			if(!qss.contains(s));
-				qss.add(s);
-			try {
-				StateSet auxss = new StateSet();
-				auxss = delta(s, null);
-				for (State auxs : auxss) {
-					auxQ.add(auxs);
-				}
-			} catch (Exception e) {
-				continue;
+	/**
+	 * @return the states of the state set whose compiled ids are in set.
+	 */
+	private Queue<State> members(long[] set) {
+		Queue<State> qss = new LinkedList<State>();
+		for (int w = 0; w < set.length; w++) {
+			long bits = set[w];
+			while (bits != 0L) {
+				int id = (w << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				if (id < states.size())
+					qss.add(states.get(id));
 			}
 		}
-
 		return qss;
 	}
 
@@ -299,11 +263,13 @@ public class NFALambda extends FA {
 	 * @param t set of extended transitions
 	 * @param v set of visited states
 	 * @throws AutomatonException
-	 * @throws CloneNotSupportedException
 	 * @return tuple with new states and new transitions
+	 * @deprecated toDFA() no longer builds the DFA from queues of states,
+	 * it runs the subset construction of the compiled form instead.
 	 */
+	@Deprecated
 	public Tupla<StateSet, Set<Tupla<State, Character, State>>, Character> buildTransitions(Set<Tupla<Queue<State>, Character, Queue<State>>> t, Queue<Queue<State>> v) throws AutomatonException {
-		
+
 		HashMap<Queue<State>, String> aux = new HashMap<Queue<State>, String>();
 		Set<Tupla<State, Character, State>> newT = new HashSet<Tupla<State,Character,State>>();
 		StateSet newSS = new StateSet();
@@ -312,49 +278,25 @@ public class NFALambda extends FA {
 		for (Queue<State> queue : v) {
 			aux.put(queue, "q"+i);
 
-			Boolean f1 = false;
-			Boolean i1 = false;
-
+			boolean f1 = false;
+			boolean i1 = false;
 			for (State s : queue) {
-				if(!f1) {
-					if(s.isFinal()) {
-						f1 = true;
-					}
-				}
-				if(!i1) {
-					if(s.isInitial()) {
-						i1 = true;
-					}
-				}
-			}
-
-			State newS = new State("q"+i, i1, f1);
-			if(newS.isInitial()) {
-				State is = newSS.containsInitialState();
-				if(is != null) {
-					newS.setInitial(false);
-					newSS.addState(newS);
-				} else {
-					newSS.addState(newS);
-				}
-			} else {
-				newSS.addState(newS);
+				f1 |= s.isFinal();
+				i1 |= s.isInitial();
 			}
 
+			// only the first subset holding an initial state is initial
+			State newS = new State("q"+i, i1 && newSS.containsInitialState() == null, f1);
+			newSS.addState(newS);
 			i++;
 		}
-		
-		for (Tupla<Queue<State>, Character, Queue<State>> tupla : t) {
-
-			String name1 = aux.get(tupla.first());
-			String name2 = aux.get(tupla.third());
-
-			State s1 = newSS.belongTo(name1);
-			State s2 = newSS.belongTo(name2);
 
+		for (Tupla<Queue<State>, Character, Queue<State>> tupla : t) {
+			State s1 = newSS.belongTo(aux.get(tupla.first()));
+			State s2 = newSS.belongTo(aux.get(tupla.third()));
 			newT.add(new Tupla<State,Character,State>(s1, tupla.second(), s2));
 		}
 
 		return new Tupla<StateSet, Set<Tupla<State, Character, State>>, Character>(newSS, newT, null);
-	};
-}
\ No newline at end of file
+	}
+}
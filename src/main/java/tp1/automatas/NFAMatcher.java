@@ -0,0 +1,64 @@
+package tp1.automatas;
+
+/**
+ * Matcher running the set simulation of a compiled NFA, lambda arcs
+ * included, over two frontiers that are swapped on every character.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class NFAMatcher extends Matcher {
+
+	private final CompiledNFA nfa;
+
+	//states the automaton may be in, closed under lambda
+	private long[] current;
+
+	private long[] next;
+
+	private final int[] stack;
+
+	//true once current is empty
+	private boolean dead;
+
+	NFAMatcher(CompiledNFA nfa) {
+		this.nfa = nfa;
+		this.current = new long[nfa.words];
+		this.next = new long[nfa.words];
+		this.stack = nfa.newStack();
+		reset();
+	}
+
+	@Override
+	public void feed(char c) {
+		int column = nfa.symbols.column(c);
+		if (column < 0)
+			throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+		if (dead)
+			return;
+		dead = !nfa.step(current, column, next, stack);
+		long[] swap = current;
+		current = next;
+		next = swap;
+	}
+
+	@Override
+	public boolean isAccepting() {
+		return !dead && nfa.intersectsAccepting(current);
+	}
+
+	@Override
+	public boolean isDead() {
+		return dead;
+	}
+
+	@Override
+	public void reset() {
+		nfa.start(current, stack);
+		dead = true;
+		for (long word : current) {
+			if (word != 0L)
+				dead = false;
+		}
+	}
+}
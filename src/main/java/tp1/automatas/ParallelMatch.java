@@ -0,0 +1,168 @@
+package tp1.automatas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Speculative parallel run of a DFA over a single long input.
+ *
+ * The input is split into chunks and every chunk but the first is run at
+ * the same time from every state reachable from the initial one, which
+ * gives a mapping from the state the chunk starts in to the state it ends
+ * in. Composing the mappings in order yields the state reached after the
+ * whole input. Runs from different states are advanced in lockstep and
+ * merged once they reach the same state, which in most automata happens
+ * after a few characters, so the extra work over a sequential run stays
+ * small.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class ParallelMatch {
+
+	//shortest chunk worth handing to a worker
+	static final int MIN_CHUNK = 1 << 16;
+
+	private ParallelMatch() {
+	}
+
+	/**
+	 * Runs dfa over input with one chunk per core, or sequentially when the
+	 * input is too short to be split.
+	 */
+	static boolean accepts(CompiledDFA dfa, CharSequence input, ExecutorService executor) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+		if (executor == null) throw new IllegalArgumentException("Executor can't be null");
+
+		int chunks = Math.min(Runtime.getRuntime().availableProcessors(), input.length() / MIN_CHUNK);
+		if (chunks < 2)
+			return dfa.accepts(input);
+		return accepts(dfa, input, executor, chunks);
+	}
+
+	/**
+	 * Runs dfa over input split into the given number of chunks.
+	 */
+	static boolean accepts(final CompiledDFA dfa, final CharSequence input, ExecutorService executor, int chunks) {
+		if (input == null) throw new IllegalArgumentException("String can't be null");
+		if (executor == null) throw new IllegalArgumentException("Executor can't be null");
+
+		final int[] reachable = reachable(dfa);
+		final int length = input.length();
+		List<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>(chunks);
+		for (int k = 0; k < chunks; k++) {
+			final int from = (int) ((long) length * k / chunks);
+			final int to = (int) ((long) length * (k + 1) / chunks);
+			final int[] starts = k == 0 ? new int[] { dfa.initial } : reachable;
+			tasks.add(new Callable<int[]>() {
+				@Override
+				public int[] call() {
+					return map(dfa, input, from, to, starts);
+				}
+			});
+		}
+
+		int s = dfa.initial;
+		try {
+			for (Future<int[]> chunk : executor.invokeAll(tasks)) {
+				s = chunk.get()[s];
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while checking the string", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		return dfa.accepting[s];
+	}
+
+	/**
+	 * Runs input[from, to) from every state of starts at once.
+	 * @return the state reached from each state of starts, indexed by state,
+	 * and -1 for the states not in starts.
+	 */
+	static int[] map(CompiledDFA dfa, CharSequence input, int from, int to, int[] starts) {
+		int n = dfa.stateCount();
+		int width = dfa.width;
+		int[] table = dfa.table;
+		SymbolMap symbols = dfa.symbols;
+
+		// distinct states the runs are in; run l is in runs[index], where
+		// index is l mapped through every remap
+		int[] runs = starts.clone();
+		int count = runs.length;
+		List<int[]> remaps = new ArrayList<int[]>();
+
+		// merges are done after 1, 2, 4, 8... characters
+		int[] position = new int[n];
+		int[] stamp = new int[n];
+		int epoch = 0;
+		int gap = 1;
+		int nextMerge = from + 1;
+
+		for (int i = from; i < to; i++) {
+			int column = symbols.column(input.charAt(i));
+			if (column < 0)
+				throw new IllegalArgumentException("The string's characters must belong to automaton's alphabet");
+			for (int j = 0; j < count; j++) {
+				runs[j] = table[runs[j] * width + column];
+			}
+			if (i + 1 == nextMerge && count > 1) {
+				epoch++;
+				int[] remap = new int[count];
+				int merged = 0;
+				for (int j = 0; j < count; j++) {
+					int s = runs[j];
+					if (stamp[s] != epoch) {
+						stamp[s] = epoch;
+						position[s] = merged;
+						runs[merged++] = s;
+					}
+					remap[j] = position[s];
+				}
+				remaps.add(remap);
+				count = merged;
+				gap *= 2;
+				nextMerge = i + 1 + gap;
+			}
+		}
+
+		int[] map = new int[n];
+		Arrays.fill(map, -1);
+		for (int l = 0; l < starts.length; l++) {
+			int index = l;
+			for (int[] remap : remaps) {
+				index = remap[index];
+			}
+			map[starts[l]] = runs[index];
+		}
+		return map;
+	}
+
+	// states reachable from the initial one, in breadth first order
+	private static int[] reachable(CompiledDFA dfa) {
+		int[] queue = new int[dfa.stateCount()];
+		boolean[] seen = new boolean[dfa.stateCount()];
+		int size = 0;
+		queue[size++] = dfa.initial;
+		seen[dfa.initial] = true;
+		for (int head = 0; head < size; head++) {
+			int row = queue[head] * dfa.width;
+			for (int c = 0; c < dfa.width; c++) {
+				int t = dfa.table[row + c];
+				if (!seen[t]) {
+					seen[t] = true;
+					queue[size++] = t;
+				}
+			}
+		}
+		return Arrays.copyOf(queue, size);
+	}
+}
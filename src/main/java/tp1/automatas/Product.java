@@ -0,0 +1,169 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Product construction of two compiled DFAs.
+ *
+ * The product runs over the union of both alphabets: a symbol missing from
+ * one of the automata sends that side to its dead state. Only the pairs
+ * reachable from the pair of initial states are built, in a single breadth
+ * first pass, and pairs that can no longer accept are folded into the dead
+ * state of the result.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class Product {
+
+	static final int UNION = 0;
+	static final int INTERSECTION = 1;
+	static final int DIFFERENCE = 2;
+	static final int SYMMETRIC_DIFFERENCE = 3;
+
+	//largest product indexed with a dense array instead of a map
+	private static final int DENSE_LIMIT = 1 << 20;
+
+	private Product() {
+	}
+
+	/**
+	 * @return a DFA accepting the strings for which op holds, according to
+	 * the acceptance of a and b.
+	 */
+	static CompiledDFA of(CompiledDFA a, CompiledDFA b, int op) {
+		SymbolMap symbols = union(a.symbols, b.symbols);
+		int width = symbols.width;
+		int[] columnA = new int[width];
+		int[] columnB = new int[width];
+		for (int i = 0; i < width; i++) {
+			columnA[i] = a.symbols.column(symbols.symbols[i]);
+			columnB[i] = b.symbols.column(symbols.symbols[i]);
+		}
+
+		int nb = b.stateCount();
+		long pairs = (long) a.stateCount() * nb;
+		int[] dense = pairs <= DENSE_LIMIT ? new int[(int) pairs] : null;
+		Map<Long, Integer> sparse = dense == null ? new HashMap<Long, Integer>() : null;
+		if (dense != null)
+			Arrays.fill(dense, -1);
+
+		// first and second components of every discovered pair
+		int[] left = new int[16];
+		int[] right = new int[16];
+		int count = 0;
+		int[] table = new int[16 * width];
+
+		if (!dead(a, b, a.initial, b.initial, op)) {
+			left[0] = a.initial;
+			right[0] = b.initial;
+			count = 1;
+			if (dense != null)
+				dense[a.initial * nb + b.initial] = 0;
+			else
+				sparse.put((long) a.initial * nb + b.initial, 0);
+		}
+
+		for (int s = 0; s < count; s++) {
+			if ((s + 1) * width > table.length)
+				table = Arrays.copyOf(table, table.length * 2);
+			int p = left[s];
+			int q = right[s];
+			for (int i = 0; i < width; i++) {
+				int tp = columnA[i] < 0 ? a.dead : a.table[p * a.width + columnA[i]];
+				int tq = columnB[i] < 0 ? b.dead : b.table[q * b.width + columnB[i]];
+				if (dead(a, b, tp, tq, op)) {
+					table[s * width + i] = -1;
+					continue;
+				}
+				long key = (long) tp * nb + tq;
+				int t;
+				if (dense != null) {
+					t = dense[(int) key];
+				} else {
+					Integer known = sparse.get(key);
+					t = known == null ? -1 : known;
+				}
+				if (t < 0) {
+					if (count == left.length) {
+						left = Arrays.copyOf(left, count * 2);
+						right = Arrays.copyOf(right, count * 2);
+					}
+					t = count++;
+					left[t] = tp;
+					right[t] = tq;
+					if (dense != null)
+						dense[(int) key] = t;
+					else
+						sparse.put(key, t);
+				}
+				table[s * width + i] = t;
+			}
+		}
+
+		int n = count + 1;
+		int deadState = n - 1;
+		table = Arrays.copyOf(table, n * width);
+		for (int i = 0; i < table.length; i++) {
+			if (table[i] < 0 || i >= deadState * width)
+				table[i] = deadState;
+		}
+		boolean[] accepting = new boolean[n];
+		for (int s = 0; s < count; s++) {
+			accepting[s] = accepts(a.accepting[left[s]], b.accepting[right[s]], op);
+		}
+		return new CompiledDFA(symbols, count == 0 ? deadState : 0, table, accepting, new String[n]);
+	}
+
+	private static boolean accepts(boolean p, boolean q, int op) {
+		switch (op) {
+		case UNION:
+			return p || q;
+		case INTERSECTION:
+			return p && q;
+		case DIFFERENCE:
+			return p && !q;
+		default:
+			return p != q;
+		}
+	}
+
+	/**
+	 * @return true iff no string leads from the pair (p, q) to acceptance.
+	 */
+	private static boolean dead(CompiledDFA a, CompiledDFA b, int p, int q, int op) {
+		boolean deadP = p == a.dead;
+		boolean deadQ = q == b.dead;
+		switch (op) {
+		case INTERSECTION:
+			return deadP || deadQ;
+		case DIFFERENCE:
+			return deadP;
+		default:
+			return deadP && deadQ;
+		}
+	}
+
+	/**
+	 * @return the identity mapping of the union of both alphabets.
+	 */
+	static SymbolMap union(SymbolMap a, SymbolMap b) {
+		char[] symbols = new char[a.symbols.length + b.symbols.length];
+		int i = 0;
+		int j = 0;
+		int n = 0;
+		while (i < a.symbols.length || j < b.symbols.length) {
+			if (j == b.symbols.length || (i < a.symbols.length && a.symbols[i] < b.symbols[j])) {
+				symbols[n++] = a.symbols[i++];
+			} else if (i == a.symbols.length || b.symbols[j] < a.symbols[i]) {
+				symbols[n++] = b.symbols[j++];
+			} else {
+				symbols[n++] = a.symbols[i++];
+				j++;
+			}
+		}
+		return SymbolMap.identity(Arrays.copyOf(symbols, n));
+	}
+}
@@ -0,0 +1,314 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+
+/**
+ * Finds the substrings of a text that belong to the language of a pattern
+ * automaton, reported as spans [start, end).
+ *
+ * Overlapping matches are found by running forward a DFA for Σ*L, which
+ * accepts exactly at the positions where some match ends, and their
+ * starts by running backward from each end a DFA for the reverse of L,
+ * which accepts exactly at the positions where a match ending there
+ * starts.
+ *
+ * Leftmost first matches are found by running backward a DFA for Σ*
+ * followed by the reverse of L, which accepts exactly at the positions
+ * where some match starts, and then the pattern forward from each such
+ * start up to its first end. Every DFA is built, minimized, on the first
+ * search needing it.
+ *
+ * Characters of the text outside the alphabet of the pattern are allowed:
+ * no match spans them. A leftmost first search allocates about two ints
+ * per square root of the length of the text, other searches nothing, and
+ * a searcher can be shared among threads.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class Searcher {
+
+	/**
+	 * Which matches are reported.
+	 */
+	public enum Mode {
+		/**
+		 * Non overlapping matches, scanning left to right: the match with
+		 * the leftmost start, ending at the first position where a match
+		 * from that start ends, then the next one after its end.
+		 */
+		LEFTMOST_FIRST,
+		/**
+		 * Every span of the text in the language, by increasing end and,
+		 * for the same end, from the shortest to the longest.
+		 */
+		ALL_OVERLAPPING
+	}
+
+	/**
+	 * Receives the matches found by a search.
+	 */
+	public interface MatchHandler {
+		/**
+		 * @return true to go on searching, false to stop.
+		 */
+		boolean onMatch(int start, int end);
+	}
+
+	//the pattern, minimized, run anchored at match starts
+	private final CompiledDFA pattern;
+
+	//Σ*L, accepting where some match ends, built on first use
+	private volatile CompiledDFA forward;
+
+	//reverse of L, run backward from an end, accepting where a match starts, built on first use
+	private volatile CompiledDFA reverse;
+
+	//Σ* followed by the reverse of L, run backward, accepting where some match starts, built on first use
+	private volatile CompiledDFA starts;
+
+	public Searcher(DFA pattern) {
+		this(pattern.compile());
+	}
+
+	public Searcher(CompiledDFA pattern) {
+		this.pattern = pattern.minimize();
+	}
+
+	/**
+	 * Searches the whole text.
+	 */
+	public void search(CharSequence text, Mode mode, MatchHandler handler) {
+		if (text == null) throw new IllegalArgumentException("String can't be null");
+		search(text, 0, text.length(), mode, handler);
+	}
+
+	/**
+	 * Searches text[from, to). Reported positions are indexes of text.
+	 */
+	public void search(CharSequence text, int from, int to, Mode mode, MatchHandler handler) {
+		Matcher.checkRange(text, from, to);
+		if (mode == null || handler == null)
+			throw new IllegalArgumentException("Mode and handler can't be null");
+		if (mode == Mode.LEFTMOST_FIRST)
+			leftmostFirst(text, from, to, handler);
+		else
+			allOverlapping(text, from, to, handler);
+	}
+
+	/**
+	 * @return the number of non overlapping matches in text.
+	 */
+	public int count(CharSequence text) {
+		final int[] count = new int[1];
+		search(text, Mode.LEFTMOST_FIRST, (start, end) -> {
+			count[0]++;
+			return true;
+		});
+		return count[0];
+	}
+
+	// the DFAs below are immutable, threads racing to build one may each keep their own
+
+	private CompiledDFA forward() {
+		CompiledDFA dfa = forward;
+		if (dfa == null)
+			forward = dfa = sigmaStarPrefixed(pattern);
+		return dfa;
+	}
+
+	private CompiledDFA reverse() {
+		CompiledDFA dfa = reverse;
+		if (dfa == null)
+			reverse = dfa = reversed(pattern, false);
+		return dfa;
+	}
+
+	private CompiledDFA starts() {
+		CompiledDFA dfa = starts;
+		if (dfa == null)
+			starts = dfa = reversed(pattern, true);
+		return dfa;
+	}
+
+	/**
+	 * Positions of text[from, to] are split in chunks. A first backward
+	 * pass with starts records its state at the top of every chunk; then,
+	 * left to right, each chunk reached is run backward again from its top
+	 * into a bitset of the positions where matches start, and the pattern
+	 * runs forward from each start up to the first end. Forward runs never
+	 * overlap, so every character is read at most three times.
+	 */
+	private void leftmostFirst(CharSequence text, int from, int to, MatchHandler handler) {
+		CompiledDFA starts = starts();
+		int chunk = chunkSize(to - from);
+		int chunks = (to - from) / chunk + 1;
+
+		// state of the backward run at the top of every chunk
+		int[] tops = new int[chunks];
+		int r = starts.initial;
+		for (int k = chunks - 1; k >= 0; k--) {
+			int low = from + k * chunk;
+			int high = Math.min(low + chunk, to);
+			tops[k] = r;
+			for (int i = high - 1; i >= low; i--) {
+				r = back(starts, r, text.charAt(i));
+			}
+		}
+
+		long[] bits = new long[chunk >>> 6];
+		int p = from;
+		int k = -1;
+		while (p <= to) {
+			int current = (p - from) / chunk;
+			int low = from + current * chunk;
+			if (current != k) {
+				k = current;
+				markStarts(starts, text, low, Math.min(low + chunk, to), to, tops[k], bits);
+			}
+			int start = nextStart(bits, p - low);
+			if (start < 0) {
+				p = low + chunk;
+				continue;
+			}
+			start += low;
+			int end = firstEnd(text, start, to);
+			if (!handler.onMatch(start, end))
+				return;
+			p = end > start ? end : end + 1;
+		}
+	}
+
+	// at least 4096 positions, and about the square root of their number for long texts
+	private static int chunkSize(int length) {
+		int chunk = Math.max(1 << 12, (int) Math.sqrt(length));
+		return (chunk + 63) & ~63;
+	}
+
+	// state of a backward run with starts after reading c
+	private static int back(CompiledDFA starts, int r, char c) {
+		int column = starts.symbols.column(c);
+		// no match spans a character outside the alphabet
+		return column < 0 ? starts.initial : starts.table[r * starts.width + column];
+	}
+
+	// bit i - low of bits is set iff some match in text[i, to) starts at i, for i in [low, high], high excluded unless it is to
+	private static void markStarts(CompiledDFA starts, CharSequence text, int low, int high, int to, int top, long[] bits) {
+		Arrays.fill(bits, 0L);
+		int r = top;
+		if (high == to && high - low < bits.length << 6 && starts.accepting[r])
+			bits[(high - low) >>> 6] |= 1L << (high - low);
+		for (int i = high - 1; i >= low; i--) {
+			r = back(starts, r, text.charAt(i));
+			if (starts.accepting[r])
+				bits[(i - low) >>> 6] |= 1L << (i - low);
+		}
+	}
+
+	// first set bit of bits at or after i, -1 if none
+	private static int nextStart(long[] bits, int i) {
+		int w = i >>> 6;
+		if (w >= bits.length)
+			return -1;
+		long word = bits[w] & (-1L << i);
+		while (word == 0L) {
+			if (++w == bits.length)
+				return -1;
+			word = bits[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	private void allOverlapping(CharSequence text, int from, int to, MatchHandler handler) {
+		CompiledDFA forward = forward();
+		CompiledDFA reverse = reverse();
+		int barrier = from;
+		int f = forward.initial;
+		for (int end = from;; end++) {
+			if (forward.accepting[f]) {
+				int r = reverse.initial;
+				if (reverse.accepting[r] && !handler.onMatch(end, end))
+					return;
+				for (int i = end - 1; i >= barrier; i--) {
+					r = reverse.table[r * reverse.width + reverse.symbols.column(text.charAt(i))];
+					if (r == reverse.dead)
+						break;
+					if (reverse.accepting[r] && !handler.onMatch(i, end))
+						return;
+				}
+			}
+			if (end == to)
+				return;
+			int column = forward.symbols.column(text.charAt(end));
+			if (column < 0) {
+				barrier = end + 1;
+				f = forward.initial;
+			} else {
+				f = forward.table[f * forward.width + column];
+			}
+		}
+	}
+
+	// end of the first match starting at s, which must be a match start
+	private int firstEnd(CharSequence text, int s, int to) {
+		int state = pattern.initial;
+		int i = s;
+		while (!pattern.accepting[state] && i < to) {
+			int column = pattern.symbols.column(text.charAt(i++));
+			if (column < 0)
+				break;
+			state = pattern.table[state * pattern.width + column];
+		}
+		return i;
+	}
+
+	// a fresh start state looping on every symbol, with a lambda arc to the initial state of p
+	private static CompiledDFA sigmaStarPrefixed(CompiledDFA p) {
+		NFABuilder builder = new NFABuilder(p.symbols);
+		int n = p.stateCount();
+		builder.addStates(n + 1);
+		for (int s = 0; s < n; s++) {
+			builder.setFinal(s, p.accepting[s]);
+			for (int i = 0; i < p.symbols.symbols.length; i++) {
+				int t = p.table[s * p.width + p.symbols.columnAt(i)];
+				if (s != p.dead && t != p.dead)
+					builder.addTransition(s, i, t);
+			}
+		}
+		for (int i = 0; i < p.symbols.symbols.length; i++) {
+			builder.addTransition(n, i, n);
+		}
+		builder.addLambda(n, p.initial);
+		builder.setInitial(n);
+		return builder.build().determinize().minimize();
+	}
+
+	/**
+	 * Arcs of p reversed, from a fresh start state with lambda arcs to the
+	 * final states of p. With sigmaStar the fresh state also loops on every
+	 * symbol, giving Σ* followed by the reverse of L with a single subset
+	 * construction.
+	 */
+	private static CompiledDFA reversed(CompiledDFA p, boolean sigmaStar) {
+		NFABuilder builder = new NFABuilder(p.symbols);
+		int n = p.stateCount();
+		builder.addStates(n + 1);
+		for (int s = 0; s < n; s++) {
+			if (p.accepting[s])
+				builder.addLambda(n, s);
+			for (int i = 0; i < p.symbols.symbols.length; i++) {
+				int t = p.table[s * p.width + p.symbols.columnAt(i)];
+				if (s != p.dead && t != p.dead)
+					builder.addTransition(t, i, s);
+			}
+		}
+		if (sigmaStar) {
+			for (int i = 0; i < p.symbols.symbols.length; i++) {
+				builder.addTransition(n, i, n);
+			}
+		}
+		builder.setInitial(n);
+		builder.setFinal(p.initial, true);
+		return builder.build().determinize().minimize();
+	}
+}
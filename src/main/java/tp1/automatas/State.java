@@ -1,11 +1,14 @@
 package tp1.automatas;
 
+import java.util.Arrays;
+
 /**
  * @author Fernandez, Camilo
  * @author Manzetti, Mariano
  */
 public class State implements Cloneable {
 
+
 	//state name
 	private String name;
 
@@ -15,6 +18,9 @@ public class State implements Cloneable {
 	//true when the state is marked to be a initial state
 	private boolean isInitial;
 
+	//sets told about changes to the flags, see StateSet.watch()
+	private StateSet[] watchers;
+
 	public State(String name, boolean isInitial, boolean isFinal) {
 		String name2 = new String(name);
 		this.name = name2;
@@ -43,11 +49,52 @@ public class State implements Cloneable {
 	}
 
 	public void setInitial(boolean e) {
-		this.isInitial = e;
+		if (isInitial != e) {
+			this.isInitial = e;
+			changed();
+		}
 	}
 
 	public void setFinal(boolean e) {
-		this.isFinal = e;
+		if (isFinal != e) {
+			this.isFinal = e;
+			changed();
+		}
+	}
+
+	private void changed() {
+		if (watchers != null) {
+			for (StateSet ss : watchers) {
+				ss.changed();
+			}
+		}
+	}
+
+	void watchedBy(StateSet ss) {
+		if (watchers == null) {
+			watchers = new StateSet[] { ss };
+		} else {
+			for (StateSet w : watchers) {
+				if (w == ss)
+					return;
+			}
+			watchers = Arrays.copyOf(watchers, watchers.length + 1);
+			watchers[watchers.length - 1] = ss;
+		}
+	}
+
+	void unwatchedBy(StateSet ss) {
+		if (watchers == null)
+			return;
+		for (int i = 0; i < watchers.length; i++) {
+			if (watchers[i] == ss) {
+				StateSet[] rest = new StateSet[watchers.length - 1];
+				System.arraycopy(watchers, 0, rest, 0, i);
+				System.arraycopy(watchers, i + 1, rest, i, rest.length - i);
+				watchers = rest.length == 0 ? null : rest;
+				return;
+			}
+		}
 	}
 
 	public void setName(String n) {
@@ -90,6 +137,9 @@ public class State implements Cloneable {
 	}
 
 	public State cloneState() throws CloneNotSupportedException {
-		return (State) super.clone();
+		State clone = (State) super.clone();
+		// a clone belongs to no set yet
+		clone.watchers = null;
+		return clone;
 	}
 }
\ No newline at end of file
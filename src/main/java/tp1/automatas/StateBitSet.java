@@ -0,0 +1,155 @@
+package tp1.automatas;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Compact set of states drawn from a single StateSet, the universe, stored
+ * as a bitset over the positions of the states in it. Meant for the many
+ * subsets of one automaton built by its algorithms: each one costs a bit
+ * per state of the universe instead of an object per member. States must
+ * not be deleted from the universe while subsets of it are in use.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public class StateBitSet implements Iterable<State> {
+
+	private final StateSet universe;
+
+	private final BitSet members;
+
+	public StateBitSet(StateSet universe) {
+		this.universe = universe;
+		this.members = new BitSet(universe.size());
+	}
+
+	/**
+	 * @return the set all members are drawn from.
+	 */
+	public StateSet getUniverse() {
+		return universe;
+	}
+
+	/**
+	 * Adds the state with the given name.
+	 * @return true if it was added, false if it was already present.
+	 * @throws AutomatonException if the universe has no such state.
+	 */
+	public boolean add(String name) throws AutomatonException {
+		int i = universe.indexOf(name);
+		if (i < 0)
+			throw new AutomatonException("State does not belong to the universe");
+		boolean present = members.get(i);
+		members.set(i);
+		return !present;
+	}
+
+	public boolean add(State s) throws AutomatonException {
+		return add(s.getName());
+	}
+
+	/**
+	 * Removes the state with the given name, if present.
+	 */
+	public void remove(String name) {
+		int i = universe.indexOf(name);
+		if (i >= 0)
+			members.clear(i);
+	}
+
+	public boolean contains(String name) {
+		int i = universe.indexOf(name);
+		return i >= 0 && members.get(i);
+	}
+
+	public boolean contains(State s) {
+		return contains(s.getName());
+	}
+
+	/**
+	 * Removes all states.
+	 */
+	public void clear() {
+		members.clear();
+	}
+
+	public int size() {
+		return members.cardinality();
+	}
+
+	public boolean isEmpty() {
+		return members.isEmpty();
+	}
+
+	/**
+	 * Adds all states of ss, which must be drawn from the same universe.
+	 * @return this set.
+	 */
+	public StateBitSet union(StateBitSet ss) {
+		if (ss.universe != universe)
+			throw new IllegalArgumentException("Sets must share their universe");
+		members.or(ss.members);
+		return this;
+	}
+
+	/**
+	 * @return a StateSet holding the same states.
+	 * @throws AutomatonException
+	 */
+	public StateSet toStateSet() throws AutomatonException {
+		StateSet ss = new StateSet();
+		for (State s : this) {
+			ss.addState(s);
+		}
+		return ss;
+	}
+
+	@Override
+	public Iterator<State> iterator() {
+		return new Iterator<State>() {
+			private int next = members.nextSetBit(0);
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public State next() {
+				if (next < 0)
+					throw new NoSuchElementException();
+				State s = universe.get(next);
+				next = members.nextSetBit(next + 1);
+				return s;
+			}
+		};
+	}
+
+	@Override
+	public int hashCode() {
+		return members.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		StateBitSet other = (StateBitSet) obj;
+		return universe == other.universe && members.equals(other.members);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder("( ");
+		for (State s : this) {
+			str.append(s.toString()).append(" ");
+		}
+		return str.append(")").toString();
+	}
+}
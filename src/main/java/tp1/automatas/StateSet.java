@@ -1,20 +1,107 @@
 package tp1.automatas;
 
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 
 /**
+ * Set of states identified by name.
+ *
+ * States are kept in insertion order together with an index from names to
+ * positions, so lookups by name and by position take constant time.
+ * Deleting a state moves the last one into its position, so deletions take
+ * constant time too but change the order of the remaining states.
+ * States must not be renamed while they belong to a set.
+ *
  * @author Fernandez, Camilo
  * @author Manzetti, Mariano
  */
 public class StateSet implements Iterable<State>, Cloneable {
 
-	private Set<State> states;
+	//shared empty set, see empty()
+	private static final StateSet EMPTY = new ReadOnly(new StateSet());
+
+	//states in insertion order
+	private List<State> states;
+
+	//position of every state in states, by name
+	private Map<String, Integer> index;
+
+	//number of changes so far, see modCount()
+	private int modCount;
+
+	//true when member states report changes to their flags
+	private boolean watched;
+
+	//versions of the transition functions holding this set, see reportTo()
+	private TrackedMap.Version[] versions;
 
 	public StateSet() {
-		states = new HashSet<State>();
+		states = new ArrayList<State>();
+		index = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * Makes the member states report changes to their initial and final
+	 * flags to this set, now and after they are added. Meant for the state
+	 * set of an automaton, which keeps values derived from those flags.
+	 */
+	void watch() {
+		if (watched)
+			return;
+		watched = true;
+		for (State s : states) {
+			s.watchedBy(this);
+		}
+	}
+
+	/**
+	 * @return a value that changes whenever states are added or deleted,
+	 * or, once watched, when a member state changes its flags.
+	 */
+	int modCount() {
+		return modCount;
+	}
+
+	void changed() {
+		modCount++;
+		if (versions != null) {
+			for (TrackedMap.Version v : versions) {
+				v.changed();
+			}
+		}
+	}
+
+	/**
+	 * Makes this set count its changes in the version of a transition
+	 * function it is stored in, as a set of targets.
+	 */
+	void reportTo(TrackedMap.Version version) {
+		if (versions == null) {
+			versions = new TrackedMap.Version[] { version };
+		} else {
+			for (TrackedMap.Version v : versions) {
+				if (v == version)
+					return;
+			}
+			versions = Arrays.copyOf(versions, versions.length + 1);
+			versions[versions.length - 1] = version;
+		}
+	}
+
+	/**
+	 * @return a shared empty set, which throws UnsupportedOperationException
+	 * on any attempt to add or delete states.
+	 */
+	public static StateSet empty() {
+		return EMPTY;
 	}
 
 	public StateSet cloneSS() throws CloneNotSupportedException, AutomatonException {
@@ -29,30 +116,29 @@ public class StateSet implements Iterable<State>, Cloneable {
 		if(name == null || name =="")
 			throw new AutomatonException("Node name invalid");
 
-		for(State f : states) {
-			if(f.getName().equals(name)) {
-				return f;
-			}
-		}
+		State f = belongTo(name);
+		if (f != null)
+			return f;
+
 		State freshState = new State(name, false, false);
-		states.add(freshState);
+		add(freshState);
 		return freshState;
 	}
-	
+
 
 	public State addState(String name, boolean isInitial, boolean isFinal) throws AutomatonException{
 		if(name == null || name =="")
 			throw new AutomatonException("Node name invalid");
 
-		for(State f : states) {
-			if(f.getName().equals(name)) {
-				f.setInitial(isInitial);
-				f.setFinal(isFinal);
-				return f;
-			}
+		State f = belongTo(name);
+		if (f != null) {
+			f.setInitial(isInitial);
+			f.setFinal(isFinal);
+			return f;
 		}
+
 		State freshState = new State(name, isInitial, isFinal);
-		states.add(freshState);
+		add(freshState);
 		return freshState;
 	}
 
@@ -61,30 +147,49 @@ public class StateSet implements Iterable<State>, Cloneable {
 			throw new AutomatonException("Node name invalid");
 		}
 
-		if(belongTo(s.getName()) == null) {
-			states.add(s);
-			return s;
-		}
-			
-		return belongTo(s.getName());
+		State f = belongTo(s.getName());
+		if (f != null)
+			return f;
+
+		add(s);
+		return s;
+	}
+
+	private void add(State s) {
+		index.put(s.getName(), states.size());
+		states.add(s);
+		changed();
+		if (watched)
+			s.watchedBy(this);
 	}
 
 	public void deleteState(String name) {
-		for(State f : states) {
-			if(f.getName().equals(name)) {
-				states.remove(f);
-				return;
-			}
+		Integer i = index.remove(name);
+		if (i == null)
+			return;
+
+		State deleted = states.get(i);
+		State last = states.remove(states.size() - 1);
+		if (i < states.size()) {
+			states.set(i, last);
+			index.put(last.getName(), i);
 		}
+		changed();
+		if (watched)
+			deleted.unwatchedBy(this);
 	}
 
 	public State belongTo(String name) {
-		for(State f : states) {
-			if(f.getName().equals(name)) {
-				return f;
-			}
-		}
-		return null;
+		Integer i = index.get(name);
+		return i == null ? null : states.get(i);
+	}
+
+	/**
+	 * @return position of the state with the given name, or -1 if there is none.
+	 */
+	public int indexOf(String name) {
+		Integer i = index.get(name);
+		return i == null ? -1 : i;
 	}
 
 	public int size() {
@@ -92,51 +197,126 @@ public class StateSet implements Iterable<State>, Cloneable {
 	}
 
 	public State get(int index) {
-		int i = 0;
-		for (State state : states) {
-			if (i == index) return state;
-			i += 1;
-		}
-		return null;
+		if (index < 0 || index >= states.size())
+			return null;
+		return states.get(index);
 	}
 
 	public StateSet union(StateSet ss) {
-		states.addAll(ss.states);
+		for (State s : ss) {
+			if (belongTo(s.getName()) == null)
+				add(s);
+		}
 		return this;
 	}
 
+	/**
+	 * Iterates in the order of positions. Removing a state through the
+	 * iterator deletes it from the set, moving the last state into its
+	 * position, and that state is the next one returned.
+	 */
 	@Override
 	public Iterator<State> iterator() {
-		return states.iterator();
+		return new Iterator<State>() {
+			//position of the next state
+			private int next;
+
+			//state last returned, null after it was removed
+			private State last;
+
+			@Override
+			public boolean hasNext() {
+				return next < states.size();
+			}
+
+			@Override
+			public State next() {
+				if (next >= states.size())
+					throw new NoSuchElementException();
+				last = states.get(next++);
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null)
+					throw new IllegalStateException();
+				deleteState(last.getName());
+				last = null;
+				next--;
+			}
+		};
 	}
 
 	@Override
 	public String toString() {
-		String str = "( ";
+		StringBuilder str = new StringBuilder("( ");
 		for (State s : states) {
-			str += s.toString() + " ";
+			str.append(s.toString()).append(" ");
 		}
-		return str + ")";
+		return str.append(")").toString();
 	}
 
 	/**
 	 * compare two StateSets
 	 * @param s StateSet to compare
-	 * @return true if at least one State of s param belongs to the current StateSet
+	 * @return true if at least one State of s param belongs to the current StateSet.
+	 * Neither set is modified.
 	 */
 	public boolean containsSomeOf(StateSet s) {
-		return this.states.retainAll(s.getSet());
+		for (State state : s) {
+			if (contains(state))
+				return true;
+		}
+		return false;
 	}
 	/**
 	 * gets the corresponding set of states out of the class
-	 * @return a set of states
+	 * @return a view of the states of this set, through which states can
+	 * also be added and removed
 	 */
 	public Set<State> getSet() {
-		return this.states;
+		return new AbstractSet<State>() {
+			@Override
+			public Iterator<State> iterator() {
+				return StateSet.this.iterator();
+			}
+
+			@Override
+			public int size() {
+				return states.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof State && StateSet.this.contains((State) o);
+			}
+
+			@Override
+			public boolean add(State s) {
+				if (belongTo(s.getName()) != null)
+					return false;
+				try {
+					addState(s);
+				} catch (AutomatonException e) {
+					throw new IllegalArgumentException(e.getMessage());
+				}
+				return true;
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				if (!contains(o))
+					return false;
+				deleteState(((State) o).getName());
+				return true;
+			}
+		};
 	}
 
 	public boolean contains(State state) {
-		return states.contains(state);
+		State s = belongTo(state.getName());
+		return s != null && s.equals(state);
 	}
 
 	public boolean containsAll(StateSet ss) {
@@ -147,7 +327,7 @@ public class StateSet implements Iterable<State>, Cloneable {
 			if(!contains(s))
 				return false;
 		}
-		
+
 		return true;
 	}
 
@@ -157,7 +337,47 @@ public class StateSet implements Iterable<State>, Cloneable {
 				return s;
 			}
 		}
-		
+
 		return null;
 	}
-}
\ No newline at end of file
+
+	private static final class ReadOnly extends StateSet {
+
+		ReadOnly(StateSet members) {
+			StateSet self = this;
+			for (State s : members) {
+				self.add(s);
+			}
+		}
+
+		@Override
+		public State addState(String name) {
+			throw new UnsupportedOperationException("Read only set");
+		}
+
+		@Override
+		public State addState(String name, boolean isInitial, boolean isFinal) {
+			throw new UnsupportedOperationException("Read only set");
+		}
+
+		@Override
+		public State addState(State s) {
+			throw new UnsupportedOperationException("Read only set");
+		}
+
+		@Override
+		public void deleteState(String name) {
+			throw new UnsupportedOperationException("Read only set");
+		}
+
+		@Override
+		public StateSet union(StateSet ss) {
+			throw new UnsupportedOperationException("Read only set");
+		}
+
+		@Override
+		void reportTo(TrackedMap.Version version) {
+			// never changes
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+
+/**
+ * Canonical key for a set of states of a compiled automaton, stored as a
+ * bitset. Two subsets are equal iff they hold the same states, regardless
+ * of the order in which they were found. Tuples of ints, such as the
+ * states of a product automaton, are keyed the same way through of(int[]).
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class Subset {
+
+	final long[] bits;
+
+	private final int hash;
+
+	//bits must not be modified once the subset is built
+	Subset(long[] bits) {
+		this.bits = bits;
+		this.hash = Arrays.hashCode(bits);
+	}
+
+	/**
+	 * @return a key for values, packed two ints per long, equal to the key
+	 * of another array iff both hold the same values in the same order.
+	 * values is copied and may be reused.
+	 */
+	static Subset of(int[] values) {
+		long[] packed = new long[(values.length + 1) >>> 1];
+		for (int i = 0; i < values.length; i++) {
+			packed[i >>> 1] |= (values[i] & 0xFFFFFFFFL) << ((i & 1) << 5);
+		}
+		return new Subset(packed);
+	}
+
+	boolean isEmpty() {
+		for (long w : bits) {
+			if (w != 0L)
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Subset))
+			return false;
+		Subset other = (Subset) obj;
+		return hash == other.hash && Arrays.equals(bits, other.bits);
+	}
+}
@@ -0,0 +1,94 @@
+package tp1.automatas;
+
+import java.util.Arrays;
+
+/**
+ * Dense mapping from the symbols of an alphabet to the columns of a
+ * transition table. Symbols are numbered in ascending order, so two equal
+ * alphabets always produce the same mapping.
+ *
+ * The column of a char is read straight from an array indexed by the char,
+ * offset by the lowest symbol. With fewer than 256 columns, as with merged
+ * symbol classes, the array holds bytes, a quarter of the ints it holds
+ * otherwise.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class SymbolMap {
+
+	//alphabet symbols in ascending order
+	final char[] symbols;
+
+	//number of columns of the tables indexed by this map
+	final int width;
+
+	//lowest symbol, used as offset into columns
+	private final char base;
+
+	//number of chars from base on with an entry
+	private final int range;
+
+	//bytes[c - base] is the column of c plus one, 0 when c is not a symbol, null with 256 columns or more
+	private final byte[] bytes;
+
+	//columns[c - base] is the column of c, or -1 when c is not a symbol, null when bytes is used
+	private final int[] columns;
+
+	SymbolMap(char[] symbols, int[] columnOfSymbol, int width) {
+		this.symbols = symbols;
+		this.width = width;
+		this.base = symbols.length == 0 ? 0 : symbols[0];
+		this.range = symbols.length == 0 ? 0 : symbols[symbols.length - 1] - base + 1;
+		if (width < 256) {
+			this.bytes = new byte[range];
+			this.columns = null;
+			for (int i = 0; i < symbols.length; i++) {
+				bytes[symbols[i] - base] = (byte) (columnOfSymbol[i] + 1);
+			}
+		} else {
+			this.bytes = null;
+			this.columns = new int[range];
+			Arrays.fill(columns, -1);
+			for (int i = 0; i < symbols.length; i++) {
+				columns[symbols[i] - base] = columnOfSymbol[i];
+			}
+		}
+	}
+
+	/**
+	 * Builds the identity mapping of an alphabet, one column per symbol.
+	 */
+	static SymbolMap of(Alphabet alphabet) {
+		return identity(alphabet.symbols());
+	}
+
+	/**
+	 * Builds the mapping with one column per symbol.
+	 * @param symbols distinct symbols in ascending order.
+	 */
+	static SymbolMap identity(char[] symbols) {
+		int[] columns = new int[symbols.length];
+		for (int i = 0; i < symbols.length; i++) {
+			columns[i] = i;
+		}
+		return new SymbolMap(symbols, columns, symbols.length);
+	}
+
+	/**
+	 * @return the column of c, or -1 when c does not belong to the alphabet.
+	 */
+	int column(char c) {
+		int i = c - base;
+		if (i < 0 || i >= range)
+			return -1;
+		return bytes != null ? (bytes[i] & 0xFF) - 1 : columns[i];
+	}
+
+	/**
+	 * @return the column of the i-th symbol in ascending order.
+	 */
+	int columnAt(int i) {
+		return column(symbols[i]);
+	}
+}
@@ -0,0 +1,359 @@
+package tp1.automatas;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * HashMap counting its changes in a Version shared by all the maps of a
+ * transition function, the outer one and those of every state, so the
+ * compiled form cached by an automaton can tell when it is stale.
+ *
+ * Every way of changing the map is counted, views and iterators included.
+ * StateSets stored as values report their own changes to the version too.
+ * Maps not sharing the version cannot report their changes, so storing one
+ * as a value leaves the version untracked for good.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+class TrackedMap<K, V> extends HashMap<K, V> {
+
+	private static final long serialVersionUID = 1L;
+
+	final Version version;
+
+	TrackedMap(Version version) {
+		this.version = version;
+	}
+
+	/**
+	 * Number of changes of a transition function.
+	 */
+	static final class Version implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private int count;
+
+		//true once a change may have gone unreported
+		private boolean untracked;
+
+		void changed() {
+			count++;
+		}
+
+		/**
+		 * @return the number of changes so far, or -1 when changes may go
+		 * unreported.
+		 */
+		int get() {
+			return untracked ? -1 : count;
+		}
+	}
+
+	private void adopt(Object value) {
+		if (value instanceof StateSet) {
+			((StateSet) value).reportTo(version);
+		} else if (value != null) {
+			if (!(value instanceof TrackedMap) || ((TrackedMap<?, ?>) value).version != version)
+				version.untracked = true;
+		}
+	}
+
+	@Override
+	public V put(K key, V value) {
+		adopt(value);
+		V old = super.put(key, value);
+		version.changed();
+		return old;
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends V> m) {
+		for (V value : m.values()) {
+			adopt(value);
+		}
+		super.putAll(m);
+		version.changed();
+	}
+
+	@Override
+	public V remove(Object key) {
+		V old = super.remove(key);
+		version.changed();
+		return old;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		boolean removed = super.remove(key, value);
+		version.changed();
+		return removed;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		version.changed();
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		adopt(value);
+		V old = super.putIfAbsent(key, value);
+		version.changed();
+		return old;
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		adopt(newValue);
+		boolean replaced = super.replace(key, oldValue, newValue);
+		version.changed();
+		return replaced;
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		adopt(value);
+		V old = super.replace(key, value);
+		version.changed();
+		return old;
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		super.replaceAll((k, v) -> {
+			V value = function.apply(k, v);
+			adopt(value);
+			return value;
+		});
+		version.changed();
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		V value = super.computeIfAbsent(key, k -> {
+			V v = mappingFunction.apply(k);
+			adopt(v);
+			return v;
+		});
+		version.changed();
+		return value;
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		V value = super.computeIfPresent(key, (k, old) -> {
+			V v = remappingFunction.apply(k, old);
+			adopt(v);
+			return v;
+		});
+		version.changed();
+		return value;
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		V value = super.compute(key, (k, old) -> {
+			V v = remappingFunction.apply(k, old);
+			adopt(v);
+			return v;
+		});
+		version.changed();
+		return value;
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		adopt(value);
+		V merged = super.merge(key, value, (old, v) -> {
+			V m = remappingFunction.apply(old, v);
+			adopt(m);
+			return m;
+		});
+		version.changed();
+		return merged;
+	}
+
+	@Override
+	public Set<K> keySet() {
+		final Set<K> keys = super.keySet();
+		return new AbstractSet<K>() {
+			@Override
+			public Iterator<K> iterator() {
+				return tracked(keys.iterator());
+			}
+
+			@Override
+			public int size() {
+				return keys.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return keys.contains(o);
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				if (!keys.remove(o))
+					return false;
+				version.changed();
+				return true;
+			}
+
+			@Override
+			public void clear() {
+				TrackedMap.this.clear();
+			}
+		};
+	}
+
+	@Override
+	public Collection<V> values() {
+		final Collection<V> values = super.values();
+		return new AbstractCollection<V>() {
+			@Override
+			public Iterator<V> iterator() {
+				return tracked(values.iterator());
+			}
+
+			@Override
+			public int size() {
+				return values.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return values.contains(o);
+			}
+
+			@Override
+			public void clear() {
+				TrackedMap.this.clear();
+			}
+		};
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		final Set<Map.Entry<K, V>> entries = super.entrySet();
+		return new AbstractSet<Map.Entry<K, V>>() {
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				final Iterator<Map.Entry<K, V>> it = tracked(entries.iterator());
+				return new Iterator<Map.Entry<K, V>>() {
+					@Override
+					public boolean hasNext() {
+						return it.hasNext();
+					}
+
+					@Override
+					public Map.Entry<K, V> next() {
+						return new TrackedEntry(it.next());
+					}
+
+					@Override
+					public void remove() {
+						it.remove();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return entries.contains(o);
+			}
+
+			@Override
+			public boolean remove(Object o) {
+				if (!entries.remove(o))
+					return false;
+				version.changed();
+				return true;
+			}
+
+			@Override
+			public void clear() {
+				TrackedMap.this.clear();
+			}
+		};
+	}
+
+	private <E> Iterator<E> tracked(final Iterator<E> it) {
+		return new Iterator<E>() {
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			@Override
+			public E next() {
+				return it.next();
+			}
+
+			@Override
+			public void remove() {
+				it.remove();
+				version.changed();
+			}
+		};
+	}
+
+	// entry whose setValue is counted
+	private final class TrackedEntry implements Map.Entry<K, V> {
+
+		private final Map.Entry<K, V> entry;
+
+		TrackedEntry(Map.Entry<K, V> entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public K getKey() {
+			return entry.getKey();
+		}
+
+		@Override
+		public V getValue() {
+			return entry.getValue();
+		}
+
+		@Override
+		public V setValue(V value) {
+			adopt(value);
+			V old = entry.setValue(value);
+			version.changed();
+			return old;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return entry.equals(o);
+		}
+
+		@Override
+		public int hashCode() {
+			return entry.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return entry.toString();
+		}
+	}
+}
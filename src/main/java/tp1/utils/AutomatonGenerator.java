@@ -0,0 +1,211 @@
+package tp1.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Seeded generator of automata, for tests and benchmarks that need more
+ * than the hand drawn .dot files. Two generators built with the same seed
+ * and symbols produce the same automata when called in the same order.
+ *
+ * Besides random automata it builds the families that are worst cases for
+ * some algorithm: the n-th symbol from the end NFA, whose DFA has 2^n
+ * states, and long lambda chains and cycles, whose closures span the whole
+ * automaton.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public class AutomatonGenerator {
+
+	private final Random random;
+
+	//alphabet symbols in ascending order
+	private final char[] symbols;
+
+	public AutomatonGenerator(long seed) {
+		this(seed, 'a', 'b');
+	}
+
+	public AutomatonGenerator(long seed, char... symbols) {
+		if (symbols.length == 0)
+			throw new IllegalArgumentException("The alphabet can't be empty");
+		this.random = new Random(seed);
+		this.symbols = symbols.clone();
+		Arrays.sort(this.symbols);
+		for (int i = 1; i < this.symbols.length; i++) {
+			if (this.symbols[i] == this.symbols[i - 1])
+				throw new IllegalArgumentException("Repeated symbol " + this.symbols[i]);
+		}
+	}
+
+	/**
+	 * Complete DFA with n states: every state has one arc per symbol to a
+	 * random state. About a quarter of the states are final.
+	 */
+	public GeneratedAutomaton random(int n) {
+		checkSize(n);
+		Arcs arcs = new Arcs(n * symbols.length);
+		for (int s = 0; s < n; s++) {
+			for (int c = 0; c < symbols.length; c++) {
+				arcs.add(s, c, random.nextInt(n));
+			}
+		}
+		return arcs.build(0, randomFinals(n));
+	}
+
+	/**
+	 * NFA with n states where every state has fanOut arcs per symbol to
+	 * random states.
+	 */
+	public GeneratedAutomaton dense(int n, int fanOut) {
+		return nondeterministic(n, fanOut, false);
+	}
+
+	/**
+	 * Partial DFA with n states where every state has a single arc, via a
+	 * random symbol to a random state.
+	 */
+	public GeneratedAutomaton sparse(int n) {
+		checkSize(n);
+		Arcs arcs = new Arcs(n);
+		for (int s = 0; s < n; s++) {
+			arcs.add(s, random.nextInt(symbols.length), random.nextInt(n));
+		}
+		return arcs.build(0, randomFinals(n));
+	}
+
+	/**
+	 * Dense NFA with n states plus a lambda arc from every state to a random
+	 * state.
+	 */
+	public GeneratedAutomaton randomLambda(int n, int fanOut) {
+		return nondeterministic(n, fanOut, true);
+	}
+
+	/**
+	 * NFA with n+1 states accepting the strings whose n-th symbol from the
+	 * end is the lowest symbol. Its minimal DFA has 2^n states.
+	 */
+	public GeneratedAutomaton nthFromLast(int n) {
+		checkSize(n);
+		Arcs arcs = new Arcs((n + 1) * symbols.length);
+		for (int c = 0; c < symbols.length; c++) {
+			arcs.add(0, c, 0);
+		}
+		arcs.add(0, 0, 1);
+		for (int s = 1; s < n; s++) {
+			for (int c = 0; c < symbols.length; c++) {
+				arcs.add(s, c, s + 1);
+			}
+		}
+		boolean[] finals = new boolean[n + 1];
+		finals[n] = true;
+		return arcs.build(0, finals);
+	}
+
+	/**
+	 * NFALambda with n states linked by lambda arcs 0 -> 1 -> ... -> n-1,
+	 * where every state loops on every symbol and only the last one is
+	 * final. Every closure from 0 holds the n states.
+	 */
+	public GeneratedAutomaton lambdaChain(int n) {
+		return lambdas(n, false);
+	}
+
+	/**
+	 * Like lambdaChain, with a lambda arc from n-1 back to 0 closing the
+	 * cycle, so the n states form a single strongly connected component.
+	 */
+	public GeneratedAutomaton lambdaCycle(int n) {
+		return lambdas(n, true);
+	}
+
+	/**
+	 * @return a random string of the given length over the alphabet.
+	 */
+	public String input(int length) {
+		char[] input = new char[length];
+		for (int i = 0; i < length; i++) {
+			input[i] = symbols[random.nextInt(symbols.length)];
+		}
+		return new String(input);
+	}
+
+	private GeneratedAutomaton nondeterministic(int n, int fanOut, boolean lambda) {
+		checkSize(n);
+		if (fanOut < 1)
+			throw new IllegalArgumentException("Invalid fan out");
+		Arcs arcs = new Arcs(n * (symbols.length * fanOut + (lambda ? 1 : 0)));
+		for (int s = 0; s < n; s++) {
+			for (int c = 0; c < symbols.length; c++) {
+				for (int i = 0; i < fanOut; i++) {
+					arcs.add(s, c, random.nextInt(n));
+				}
+			}
+			if (lambda)
+				arcs.add(s, GeneratedAutomaton.LAMBDA, random.nextInt(n));
+		}
+		return arcs.build(0, randomFinals(n));
+	}
+
+	private GeneratedAutomaton lambdas(int n, boolean cycle) {
+		checkSize(n);
+		Arcs arcs = new Arcs(n * (symbols.length + 1));
+		for (int s = 0; s < n; s++) {
+			for (int c = 0; c < symbols.length; c++) {
+				arcs.add(s, c, s);
+			}
+			if (s + 1 < n)
+				arcs.add(s, GeneratedAutomaton.LAMBDA, s + 1);
+		}
+		if (cycle)
+			arcs.add(n - 1, GeneratedAutomaton.LAMBDA, 0);
+		boolean[] finals = new boolean[n];
+		finals[n - 1] = true;
+		return arcs.build(0, finals);
+	}
+
+	private boolean[] randomFinals(int n) {
+		boolean[] finals = new boolean[n];
+		for (int s = 0; s < n; s++) {
+			finals[s] = random.nextInt(4) == 0;
+		}
+		return finals;
+	}
+
+	private static void checkSize(int n) {
+		if (n < 1)
+			throw new IllegalArgumentException("Invalid number of states");
+	}
+
+	// growing arrays of (from, symbol, to) triples
+	private final class Arcs {
+		private int[] from;
+		private int[] symbol;
+		private int[] to;
+		private int size;
+
+		Arcs(int capacity) {
+			from = new int[Math.max(capacity, 1)];
+			symbol = new int[from.length];
+			to = new int[from.length];
+		}
+
+		void add(int from, int symbol, int to) {
+			if (size == this.from.length) {
+				this.from = Arrays.copyOf(this.from, size * 2);
+				this.symbol = Arrays.copyOf(this.symbol, size * 2);
+				this.to = Arrays.copyOf(this.to, size * 2);
+			}
+			this.from[size] = from;
+			this.symbol[size] = symbol;
+			this.to[size] = to;
+			size++;
+		}
+
+		GeneratedAutomaton build(int initial, boolean[] finals) {
+			return new GeneratedAutomaton(symbols, initial, finals, from, symbol, to, size);
+		}
+	}
+}
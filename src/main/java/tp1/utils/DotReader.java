@@ -1,31 +1,65 @@
 package tp1.utils;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import tp1.automatas.Alphabet;
 import tp1.automatas.AutomatonException;
+import tp1.automatas.CompiledDFA;
+import tp1.automatas.CompiledNFA;
+import tp1.automatas.DFABuilder;
+import tp1.automatas.NFABuilder;
 import tp1.automatas.State;
 import tp1.automatas.StateSet;
 
 /**
+ * Reads automata written as graphs in the dot language. Every line holds at
+ * most one statement, with spaces and tabs ignored:
+ * <ul>
+ * <li>{@code inic->q0;} makes q0 the initial state;</li>
+ * <li>{@code q0->q1[label="a"];} is an arc labeled a;</li>
+ * <li>{@code q0->q1[color=red];} is a lambda arc;</li>
+ * <li>{@code q1[shape=doublecircle];} makes q1 a final state;</li>
+ * </ul>
+ * and any other line is skipped.
+ *
+ * The input is scanned once in blocks, each line being compacted into a
+ * reused buffer and matched by hand, so parsing costs no regular expression
+ * and no String per line. Every reader owns its input, hence different
+ * readers can parse concurrently.
+ *
  * @author Vale
  * @version 1.0
  *
  **/
 public class DotReader {
 
-	private static BufferedReader breader = null;
 	private static String dir = System.getProperty("user.dir") + "/";
 
-	private static Pattern patternInitialNode;
-	private static Pattern patternFinalNode;
-	private static Pattern patternArcs;
-	private static Pattern patternUnLabeledArcs;
+	//characters read at a time
+	private static final int BLOCK = 1 << 16;
+
+	private static final char[] ARROW = "->".toCharArray();
+	private static final char[] INITIAL = "inic".toCharArray();
+	private static final char[] LABEL = "[label=\"".toCharArray();
+	private static final char[] LABEL_END = "\"];".toCharArray();
+	private static final char[] LAMBDA = "[color=red];".toCharArray();
+	private static final char[] FINAL = "[shape=doublecircle];".toCharArray();
+
+	// Where the graph is read from, null once consumed
+	private String path;
+	private Reader reader;
 
 	// To save the symbols, nodes and arcs read from dot file
 	private StateSet nodes = new StateSet();
@@ -38,20 +72,22 @@ public class DotReader {
 	 */
 
 	/**
-	 * builds a dotReader object from a .dot file
+	 * builds a dotReader object from a .dot file, which is opened when parsed
 	 *
 	 * @param relative path of .dot file representing a graph
 	 **/
 	public DotReader(String path) {
-		FileReader freader = null;
-		try {
-			// Opens file
-			freader = new FileReader(dir + path + ".dot");
-		} catch (Exception e) {
-			System.out.println("Problem to open file: " + dir + path + ".dot" + e.toString());
-		}
-		breader = new BufferedReader(freader);
-		initPatterns();
+		this.path = dir + path + ".dot";
+	}
+
+	/**
+	 * builds a dotReader object reading a graph from reader, which is closed
+	 * when parsed
+	 *
+	 * @param reader characters of a graph in the dot language
+	 **/
+	public DotReader(Reader reader) {
+		this.reader = reader;
 	}
 
 	/**
@@ -91,17 +127,73 @@ public class DotReader {
 	 * respectively.
 	 **/
 	public void parse() throws Exception {
-		String line;
-		while ((line = breader.readLine()) != null) {
-			line = line.replaceAll("\t", "");
-			line = line.replaceAll(" ", "");
+		scan(new Sink() {
+			@Override
+			public void initial(String name) throws AutomatonException {
+				nodes.addState(name).setInitial(true);
+			}
+
+			@Override
+			public void setFinal(String name) throws AutomatonException {
+				nodes.addState(name).setFinal(true);
+			}
 
-			searchAndSaveInitialNode(line);
-			searchAndSaveArcs(line);
-			searchAndSaveFinalNode(line);
+			@Override
+			public void arc(String from, char label, String to) throws AutomatonException {
+				State f = nodes.addState(from);
+				State t = nodes.addState(to);
+				symbols.addSymbol(label);
+				arcs.add(new Tupla<State, Character, State>(f, label, t));
+			}
+
+			@Override
+			public void lambda(String from, String to) throws AutomatonException {
+				State f = nodes.addState(from);
+				State t = nodes.addState(to);
+				arcs.add(new Tupla<State, Character, State>(f, null, t));
+			}
+		});
+	}
+
+	/**
+	 * parses the graph straight into a compiled DFA, without building the
+	 * nodes and arcs sets. States are numbered in order of appearance.
+	 *
+	 * @return the compiled automaton
+	 * @throws IllegalArgumentException if the graph is not deterministic
+	 **/
+	public CompiledDFA parseDFA() throws IOException, AutomatonException {
+		Graph graph = new Graph();
+		scan(graph);
+		DFABuilder builder = new DFABuilder(graph.alphabet());
+		graph.states(builder);
+		for (int i = 0; i < graph.arcCount; i++) {
+			if (graph.label[i] == Graph.LAMBDA)
+				throw new IllegalArgumentException("Invalid transitions for DFA");
+			builder.addTransition(graph.from[i], (char) graph.label[i], graph.to[i]);
+		}
+		return builder.build();
+	}
 
+	/**
+	 * parses the graph straight into a compiled NFA, lambda arcs included,
+	 * without building the nodes and arcs sets. States are numbered in order
+	 * of appearance.
+	 *
+	 * @return the compiled automaton
+	 **/
+	public CompiledNFA parseNFA() throws IOException, AutomatonException {
+		Graph graph = new Graph();
+		scan(graph);
+		NFABuilder builder = new NFABuilder(graph.alphabet());
+		graph.states(builder);
+		for (int i = 0; i < graph.arcCount; i++) {
+			if (graph.label[i] == Graph.LAMBDA)
+				builder.addLambda(graph.from[i], graph.to[i]);
+			else
+				builder.addTransition(graph.from[i], (char) graph.label[i], graph.to[i]);
 		}
-		close();
+		return builder.build();
 	}
 
 	@Override
@@ -110,80 +202,213 @@ public class DotReader {
 	}
 
 	/**
-	 * helper static methods
+	 * private methods used by the parse methods
 	 **/
 
+	// receives the statements of a graph in order
+	private interface Sink {
+		void initial(String name) throws AutomatonException;
+
+		void setFinal(String name) throws AutomatonException;
+
+		void arc(String from, char label, String to) throws AutomatonException;
+
+		void lambda(String from, String to) throws AutomatonException;
+	}
+
 	/**
-	 * builds and compile regular expressions that describe the different parts
-	 * (nodes and arcs) of a graph in the dot language
+	 * reads the whole input once, compacting every line and handing it to
+	 * statement()
 	 **/
-	private static void initPatterns() {
+	private void scan(Sink sink) throws IOException, AutomatonException {
+		Reader in = open();
+		try {
+			char[] block = new char[BLOCK];
+			char[] line = new char[128];
+			int length = 0;
+			int read;
+			while ((read = in.read(block)) >= 0) {
+				for (int i = 0; i < read; i++) {
+					char c = block[i];
+					if (c == '\n' || c == '\r') {
+						statement(line, length, sink);
+						length = 0;
+					} else if (c != ' ' && c != '\t') {
+						if (length == line.length)
+							line = Arrays.copyOf(line, length * 2);
+						line[length++] = c;
+					}
+				}
+			}
+			statement(line, length, sink);
+		} finally {
+			in.close();
+		}
+	}
+
+	private Reader open() throws IOException {
+		Reader in = reader;
+		if (in == null && path != null)
+			in = new InputStreamReader(Files.newInputStream(Paths.get(path)), Charset.defaultCharset());
+		if (in == null)
+			throw new IOException("Graph already parsed");
+		reader = null;
+		path = null;
+		return in;
+	}
 
-		// Regular Expressions
-		final String regexInitialNode = "inic->([a-zA-Z0-9]+);";
-		final String regexArcs = "([a-zA-Z0-9]+)->([a-zA-Z0-9]+)\\[label=\"([a-zA-Z0-9]+)\"];";
-		final String regexUnLabeledArcs = "([a-zA-Z0-9]+)->([a-zA-Z0-9]+)\\[color=red\\];";
-		final String regexFinalNodes = "([a-zA-Z0-9]+)\\[shape=doublecircle];";
+	/**
+	 * matches the compacted line[0, length) against every statement
+	 **/
+	private static void statement(char[] line, int length, Sink sink) throws AutomatonException {
+		int a = name(line, 0, length);
+		if (a == 0)
+			return;
+		if (matches(line, a, length, FINAL)) {
+			sink.setFinal(new String(line, 0, a));
+			return;
+		}
+		if (!startsWith(line, a, length, ARROW))
+			return;
+		int b = name(line, a + ARROW.length, length);
+		if (b == a + ARROW.length)
+			return;
 
-		// Compiles the patterns
-		patternInitialNode = Pattern.compile(regexInitialNode);
-		patternFinalNode = Pattern.compile(regexFinalNodes);
-		patternArcs = Pattern.compile(regexArcs);
-		patternUnLabeledArcs = Pattern.compile(regexUnLabeledArcs);
+		if (b == length - 1 && line[b] == ';') {
+			if (a == INITIAL.length && startsWith(line, 0, length, INITIAL))
+				sink.initial(new String(line, a + ARROW.length, b - a - ARROW.length));
+		} else if (startsWith(line, b, length, LABEL)) {
+			int c = name(line, b + LABEL.length, length);
+			if (c > b + LABEL.length && matches(line, c, length, LABEL_END))
+				sink.arc(new String(line, 0, a), line[b + LABEL.length], new String(line, a + ARROW.length, b - a - ARROW.length));
+		} else if (matches(line, b, length, LAMBDA)) {
+			sink.lambda(new String(line, 0, a), new String(line, a + ARROW.length, b - a - ARROW.length));
+		}
 	}
 
 	/**
-	 * private methods used in the parse() method
+	 * @return end of the run of letters and digits starting at from
 	 **/
-	private void searchAndSaveInitialNode(String line) throws AutomatonException {
-		Matcher mat = patternInitialNode.matcher(line);
-		if (mat.matches()) {
-			// Line is a initial state
-			String initialNodeName = mat.group(1);
-			State s = nodes.addState(initialNodeName);
-			s.setInitial(true);
+	private static int name(char[] line, int from, int length) {
+		int i = from;
+		while (i < length && isNameChar(line[i])) {
+			i++;
 		}
+		return i;
+	}
+
+	private static boolean isNameChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
 	}
 
-	private void searchAndSaveFinalNode(String line) throws AutomatonException {
-		Matcher mat = patternFinalNode.matcher(line);
-		if (mat.matches()) {
-			// Line is a initial state
-			String finalNodeName = mat.group(1);
-			State n = nodes.addState(finalNodeName);
-			n.setFinal(true);
+	private static boolean startsWith(char[] line, int from, int length, char[] token) {
+		if (length - from < token.length)
+			return false;
+		for (int i = 0; i < token.length; i++) {
+			if (line[from + i] != token[i])
+				return false;
 		}
+		return true;
+	}
+
+	/**
+	 * @return true iff line[from, length) is exactly token
+	 **/
+	private static boolean matches(char[] line, int from, int length, char[] token) {
+		return length - from == token.length && startsWith(line, from, length, token);
 	}
 
-	private void searchAndSaveArcs(String line) throws AutomatonException {
-		Matcher mat = patternArcs.matcher(line);
-		if (mat.matches()) {
-			String nameFromNode = mat.group(1);
-			String nameToNode = mat.group(2);
-			State from = nodes.addState(nameFromNode);
-			State to = nodes.addState(nameToNode);
+	/**
+	 * compact graph numbering states in order of appearance, arcs kept as
+	 * three growing int arrays
+	 **/
+	private static final class Graph implements Sink {
+
+		//label of lambda arcs
+		static final int LAMBDA = -1;
+
+		private final Map<String, Integer> ids = new HashMap<String, Integer>();
+		private final List<String> names = new ArrayList<String>();
+		private boolean[] finals = new boolean[16];
+		private int initial = -1;
+		private final boolean[] used = new boolean[Character.MAX_VALUE + 1];
+
+		//arc i is from[i] --label[i]--> to[i]
+		int[] from = new int[16];
+		int[] label = new int[16];
+		int[] to = new int[16];
+		int arcCount;
 
-			Character with = mat.group(3).charAt(0);
-			symbols.addSymbol(with);
-			arcs.add(new Tupla<State, Character, State>(from, with, to));
+		private int id(String name) {
+			Integer id = ids.get(name);
+			if (id != null)
+				return id;
+			int fresh = names.size();
+			ids.put(name, fresh);
+			names.add(name);
+			if (fresh == finals.length)
+				finals = Arrays.copyOf(finals, fresh * 2);
+			return fresh;
 		}
-		mat = patternUnLabeledArcs.matcher(line);
-		if (mat.matches()) {
-			// Line is a transition
-			String nameFromNode = mat.group(1);
-			String nameToNode = mat.group(2);
-			State from = nodes.addState(nameFromNode);
-			State to = nodes.addState(nameToNode);
-			arcs.add(new Tupla<State, Character, State>(from, null, to));
+
+		@Override
+		public void initial(String name) {
+			initial = id(name);
 		}
-	}
 
-	private static void close() {
-		try {
-			breader.close();
-		} catch (Exception e) {
-			System.out.println(e.toString());
+		@Override
+		public void setFinal(String name) {
+			finals[id(name)] = true;
+		}
+
+		@Override
+		public void arc(String from, char label, String to) {
+			used[label] = true;
+			add(id(from), label, id(to));
+		}
+
+		@Override
+		public void lambda(String from, String to) {
+			add(id(from), LAMBDA, id(to));
 		}
-	}
 
+		private void add(int f, int l, int t) {
+			if (arcCount == from.length) {
+				from = Arrays.copyOf(from, arcCount * 2);
+				label = Arrays.copyOf(label, arcCount * 2);
+				to = Arrays.copyOf(to, arcCount * 2);
+			}
+			from[arcCount] = f;
+			label[arcCount] = l;
+			to[arcCount] = t;
+			arcCount++;
+		}
+
+		Alphabet alphabet() {
+			Set<Character> symbols = new HashSet<Character>();
+			for (int c = 0; c < used.length; c++) {
+				if (used[c])
+					symbols.add((char) c);
+			}
+			return new Alphabet(symbols);
+		}
+
+		void states(DFABuilder builder) {
+			builder.addStates(names.size());
+			for (int s = 0; s < names.size(); s++) {
+				builder.setName(s, names.get(s)).setFinal(s, finals[s]);
+			}
+			if (initial >= 0)
+				builder.setInitial(initial);
+		}
+
+		void states(NFABuilder builder) {
+			builder.addStates(names.size());
+			for (int s = 0; s < names.size(); s++) {
+				builder.setName(s, names.get(s)).setFinal(s, finals[s]);
+			}
+			if (initial >= 0)
+				builder.setInitial(initial);
+		}
+	}
 }
@@ -0,0 +1,144 @@
+package tp1.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import tp1.automatas.Alphabet;
+import tp1.automatas.AutomatonException;
+import tp1.automatas.CompiledDFA;
+import tp1.automatas.CompiledNFA;
+import tp1.automatas.DFA;
+import tp1.automatas.DFABuilder;
+import tp1.automatas.NFA;
+import tp1.automatas.NFABuilder;
+import tp1.automatas.NFALambda;
+import tp1.automatas.State;
+import tp1.automatas.StateSet;
+
+/**
+ * Automaton produced by an AutomatonGenerator, kept as plain arrays so that
+ * it can be turned into any of the automaton classes, or straight into the
+ * compiled forms when it is too large to be built state by state.
+ *
+ * States are 0..stateCount()-1, named "q" followed by their number, and
+ * arcs are (from, symbol, to) triples where symbol is the position of the
+ * symbol in ascending order, or LAMBDA.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public class GeneratedAutomaton {
+
+	//symbol of lambda arcs
+	public static final int LAMBDA = -1;
+
+	//alphabet symbols in ascending order
+	private final char[] symbols;
+
+	private final int initial;
+
+	private final boolean[] finals;
+
+	//arc i is from[i] --symbols[symbol[i]]--> to[i]
+	private final int[] from;
+	private final int[] symbol;
+	private final int[] to;
+	private final int arcs;
+
+	GeneratedAutomaton(char[] symbols, int initial, boolean[] finals, int[] from, int[] symbol, int[] to, int arcs) {
+		this.symbols = symbols;
+		this.initial = initial;
+		this.finals = finals;
+		this.from = from;
+		this.symbol = symbol;
+		this.to = to;
+		this.arcs = arcs;
+	}
+
+	public int stateCount() {
+		return finals.length;
+	}
+
+	public int arcCount() {
+		return arcs;
+	}
+
+	public Alphabet getAlphabet() {
+		Set<Character> alphabet = new HashSet<Character>();
+		for (char c : symbols) {
+			alphabet.add(c);
+		}
+		return new Alphabet(alphabet);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the automaton is not deterministic.
+	 */
+	public DFA toDFA() throws AutomatonException {
+		StateSet states = new StateSet();
+		return new DFA(states, getAlphabet(), transitions(states));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the automaton has lambda arcs.
+	 */
+	public NFA toNFA() throws AutomatonException {
+		StateSet states = new StateSet();
+		return new NFA(states, getAlphabet(), transitions(states));
+	}
+
+	public NFALambda toNFALambda() throws AutomatonException {
+		StateSet states = new StateSet();
+		return new NFALambda(states, getAlphabet(), transitions(states));
+	}
+
+	/**
+	 * Builds the compiled DFA without going through DFA, missing arcs going
+	 * to the dead state.
+	 * @throws IllegalArgumentException if the automaton is not deterministic.
+	 */
+	public CompiledDFA compileDFA() {
+		DFABuilder builder = new DFABuilder(getAlphabet());
+		builder.addStates(finals.length);
+		builder.setInitial(initial);
+		for (int s = 0; s < finals.length; s++) {
+			builder.setFinal(s, finals[s]);
+		}
+		for (int i = 0; i < arcs; i++) {
+			if (symbol[i] == LAMBDA)
+				throw new IllegalArgumentException("Invalid transitions for DFA");
+			builder.addTransition(from[i], symbol[i], to[i]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Builds the compiled NFA without going through NFA or NFALambda.
+	 */
+	public CompiledNFA compileNFA() {
+		NFABuilder builder = new NFABuilder(getAlphabet());
+		builder.addStates(finals.length);
+		builder.setInitial(initial);
+		for (int s = 0; s < finals.length; s++) {
+			builder.setFinal(s, finals[s]);
+		}
+		for (int i = 0; i < arcs; i++) {
+			builder.addTransition(from[i], symbol[i] == LAMBDA ? NFABuilder.LAMBDA : symbol[i], to[i]);
+		}
+		return builder.build();
+	}
+
+	// fills states and returns the arcs over them
+	private Set<Tupla<State, Character, State>> transitions(StateSet states) throws AutomatonException {
+		State[] byId = new State[finals.length];
+		for (int s = 0; s < finals.length; s++) {
+			byId[s] = states.addState("q" + s, s == initial, finals[s]);
+		}
+		Set<Tupla<State, Character, State>> transitions = new HashSet<Tupla<State, Character, State>>();
+		for (int i = 0; i < arcs; i++) {
+			Character label = symbol[i] == LAMBDA ? null : symbols[symbol[i]];
+			transitions.add(new Tupla<State, Character, State>(byId[from[i]], label, byId[to[i]]));
+		}
+		return transitions;
+	}
+}
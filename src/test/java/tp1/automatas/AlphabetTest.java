@@ -0,0 +1,114 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import tp1.utils.Tupla;
+
+public class AlphabetTest {
+
+	@Test
+	public void testContainsOutsideCharacterCache() {
+		Alphabet alphabet = new Alphabet();
+		alphabet.addSymbol('é');
+		alphabet.addSymbol('一');
+		// boxed outside the Character cache, so a fresh object every time
+		assertTrue(alphabet.contains(Character.valueOf('é')));
+		assertTrue(alphabet.contains(Character.valueOf('一')));
+		assertTrue(alphabet.contains('一'));
+		assertFalse(alphabet.contains('e'));
+	}
+
+	@Test
+	public void testUnionAddsToReceiver() {
+		Alphabet a = new Alphabet();
+		a.addSymbol('a');
+		Alphabet b = new Alphabet();
+		b.addSymbol('b');
+		Alphabet u = a.union(b);
+		assertEquals(2, u.size());
+		assertEquals(2, a.size());
+		assertEquals(1, b.size());
+		assertTrue(a.contains('b'));
+		// the result is a copy
+		u.addSymbol('c');
+		assertFalse(a.contains('c'));
+	}
+
+	@Test
+	public void testIndexes() {
+		Alphabet alphabet = new Alphabet();
+		alphabet.addSymbol('c');
+		alphabet.addSymbol('a');
+		alphabet.addSymbol('z');
+		assertEquals(0, alphabet.indexOf('a'));
+		assertEquals(1, alphabet.indexOf('c'));
+		assertEquals(2, alphabet.indexOf('z'));
+		assertEquals(-1, alphabet.indexOf('b'));
+		assertEquals('c', alphabet.symbolAt(1));
+
+		alphabet.addSymbol('b');
+		assertEquals(1, alphabet.indexOf('b'));
+		assertEquals(2, alphabet.indexOf('c'));
+		assertThrows(IndexOutOfBoundsException.class, () -> alphabet.symbolAt(4));
+
+		List<Character> order = new ArrayList<Character>();
+		for (Character c : alphabet) {
+			order.add(c);
+		}
+		assertEquals("[a, b, c, z]", order.toString());
+	}
+
+	@Test
+	public void testSetView() {
+		Set<Character> symbols = new HashSet<Character>();
+		symbols.add('0');
+		symbols.add('1');
+		Alphabet alphabet = new Alphabet(symbols);
+		Set<Character> view = alphabet.getSet();
+		assertEquals(symbols, view);
+		alphabet.addSymbol('2');
+		assertTrue(view.contains('2'));
+		assertTrue(alphabet.removeSymbol('2'));
+		assertFalse(alphabet.removeSymbol('2'));
+		assertEquals(2, view.size());
+
+		// changes through the view reach the alphabet
+		assertTrue(view.add('2'));
+		assertFalse(view.add('2'));
+		assertEquals(1, alphabet.indexOf('1'));
+		assertTrue(view.remove('0'));
+		assertEquals(0, alphabet.indexOf('1'));
+		view.removeIf(c -> c == '1');
+		assertEquals(1, alphabet.size());
+		assertTrue(alphabet.contains('2'));
+	}
+
+	@Test
+	public void testWideAlphabetDFA() throws Exception {
+		// accepts strings of kanji one and two
+		State q0 = new State("q0", true, true);
+		StateSet states = new StateSet();
+		states.addState(q0);
+		Alphabet alphabet = new Alphabet();
+		alphabet.addSymbol('一');
+		alphabet.addSymbol('二');
+		Set<Tupla<State, Character, State>> arcs = new HashSet<Tupla<State, Character, State>>();
+		arcs.add(new Tupla<State, Character, State>(q0, '一', q0));
+		arcs.add(new Tupla<State, Character, State>(q0, '二', q0));
+		DFA dfa = new DFA(states, alphabet, arcs);
+		assertTrue(dfa.accepts("一二一"));
+		assertTrue(dfa.verifyString("二"));
+		assertFalse(dfa.verifyString("三"));
+		assertThrows(IllegalArgumentException.class, () -> dfa.accepts("三"));
+	}
+}
@@ -0,0 +1,88 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+
+public class BatchAcceptanceTest {
+
+	private static DFA dfa;
+	private static NFA nfa;
+	private static NFALambda nfaLambda;
+	private static List<String> inputs;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(11);
+		dfa = generator.random(500).toDFA();
+		nfa = generator.dense(100, 2).toNFA();
+		nfaLambda = generator.randomLambda(100, 2).toNFALambda();
+		inputs = new ArrayList<String>();
+		for (int i = 0; i < 20000; i++) {
+			inputs.add(generator.input(i % 40));
+		}
+	}
+
+	// runs a table built apart from the engine under test, determinized for NFAs
+	private static BitSet sequential(FA fa) throws Exception {
+		CompiledDFA table = fa instanceof DFA ? ((DFA) fa).compile() : ((CompiledNFA) fa.freeze()).determinize();
+		BitSet expected = new BitSet();
+		for (int i = 0; i < inputs.size(); i++) {
+			if (table.accepts(inputs.get(i)))
+				expected.set(i);
+		}
+		return expected;
+	}
+
+	@Test
+	public void testAgreesWithAccepts() throws Exception {
+		for (FA fa : new FA[] { dfa, nfa, nfaLambda }) {
+			BitSet expected = sequential(fa);
+			assertTrue(expected.cardinality() > 0);
+			assertEquals(expected, fa.acceptsAll(inputs));
+			for (int i = 0; i < inputs.size(); i += 97) {
+				assertEquals(expected.get(i), fa.accepts(inputs.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void testExecutor() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			assertEquals(sequential(nfaLambda), nfaLambda.acceptsAll(new LinkedList<String>(inputs), executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testParallelStream() throws Exception {
+		assertEquals(sequential(nfa), nfa.acceptsAll(inputs.parallelStream()));
+		assertEquals(sequential(dfa), dfa.acceptsAll(inputs.stream()));
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(dfa.acceptsAll(Collections.<String>emptyList()).isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidString() {
+		List<String> invalid = new ArrayList<String>(inputs);
+		invalid.set(15000, "abc");
+		nfa.acceptsAll(invalid);
+	}
+}
@@ -0,0 +1,122 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+
+public class BitParallelNFATest {
+
+	// set simulation over delta, following lambda arcs one by one
+	private static boolean reference(FA fa, String input) {
+		Set<State> current = closure(fa, Collections.singleton(fa.initialState()));
+		for (int i = 0; i < input.length(); i++) {
+			Set<State> next = new HashSet<State>();
+			for (State s : current) {
+				Map<Character, StateSet> arcs = fa.delta.get(s);
+				if (arcs != null && arcs.containsKey(input.charAt(i))) {
+					for (State t : arcs.get(input.charAt(i))) {
+						next.add(t);
+					}
+				}
+			}
+			current = closure(fa, next);
+		}
+		for (State s : current) {
+			if (s.isFinal())
+				return true;
+		}
+		return false;
+	}
+
+	private static Set<State> closure(FA fa, Set<State> states) {
+		Set<State> closure = new HashSet<State>(states);
+		Deque<State> pending = new ArrayDeque<State>(states);
+		while (!pending.isEmpty()) {
+			Map<Character, StateSet> arcs = fa.delta.get(pending.pop());
+			if (arcs != null && arcs.containsKey(null)) {
+				for (State t : arcs.get(null)) {
+					if (closure.add(t))
+						pending.push(t);
+				}
+			}
+		}
+		return closure;
+	}
+
+	private static void check(int states, long seed) throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(seed);
+		NFALambda nfa = generator.randomLambda(states, 2).toNFALambda();
+		CompiledNFA compiled = nfa.compile();
+		assertNotNull(BitParallelNFA.of(compiled));
+		for (int i = 0; i < 100; i++) {
+			String input = generator.input(i % 30);
+			assertEquals(input, reference(nfa, input), nfa.accepts(input));
+			assertEquals(input, reference(nfa, input), compiled.accepts(input));
+			assertEquals(input, reference(nfa, input), compiled.acceptor().test(input));
+		}
+		assertNotNull(compiled.bitParallel());
+		assertNotNull(((CompiledNFA) nfa.compiled()).bitParallel);
+	}
+
+	@Test
+	public void testSingleWord() throws Exception {
+		check(5, 1);
+		check(64, 2);
+	}
+
+	@Test
+	public void testSeveralWords() throws Exception {
+		check(65, 3);
+		check(256, 4);
+	}
+
+	@Test
+	public void testNthFromLast() throws Exception {
+		NFA nfa = new AutomatonGenerator(5).nthFromLast(40).toNFA();
+		assertTrue(nfa.accepts("bbbba" + "bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb"));
+		assertFalse(nfa.accepts("bbbbb" + "abbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb"));
+		assertNotNull(((CompiledNFA) nfa.compiled()).bitParallel);
+	}
+
+	@Test
+	public void testLargeAutomaton() {
+		assertNull(BitParallelNFA.of(new AutomatonGenerator(6).dense(BitParallelNFA.MAX_STATES + 1, 1).compileNFA()));
+	}
+
+	@Test
+	public void testBuiltLazily() throws Exception {
+		CompiledNFA nfa = new AutomatonGenerator(8).nthFromLast(10).compileNFA();
+		assertNull(nfa.bitParallel);
+		// the 10th symbol from the end is an a
+		assertTrue(nfa.accepts("abbbbbbbbb"));
+		assertNotNull(nfa.bitParallel);
+	}
+
+	@Test
+	public void testBudgetScalesWithSize() {
+		// 300 states need 5 words, 1280 bytes per state and column
+		assertNull(BitParallelNFA.of(new AutomatonGenerator(9).dense(300, 1).compileNFA()));
+		assertTrue(BitParallelNFA.budget(1, 1) < BitParallelNFA.TABLE_BUDGET);
+		assertEquals(BitParallelNFA.TABLE_BUDGET, BitParallelNFA.budget(BitParallelNFA.MAX_STATES, 256));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCharacterAfterEmpty() throws Exception {
+		NFA nfa = new AutomatonGenerator(7).nthFromLast(3).toNFA();
+		// no arc leaves the last state, the c comes after the set is empty
+		nfa.compile().accepts("abbbbc");
+	}
+}
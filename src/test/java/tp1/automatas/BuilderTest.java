@@ -0,0 +1,115 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class BuilderTest {
+
+	private static Alphabet ab() {
+		return new Alphabet(new HashSet<Character>(Arrays.asList('a', 'b')));
+	}
+
+	@Test
+	public void testDFABuilder() {
+		// strings over {a,b} ending in a
+		DFABuilder builder = new DFABuilder(ab());
+		int q0 = builder.addState();
+		int q1 = builder.addState();
+		builder.setInitial(q0).setFinal(q1, true);
+		builder.addTransition(q0, 'a', q1).addTransition(q0, 'b', q0);
+		builder.addTransition(q1, 0, q1).addTransition(q1, 1, q0);
+		CompiledDFA dfa = builder.build();
+		assertEquals(3, dfa.stateCount());
+		assertTrue(dfa.accepts("bba"));
+		assertFalse(dfa.accepts("ab"));
+		assertFalse(dfa.accepts(""));
+	}
+
+	@Test
+	public void testMissingTransitionsGoToDead() {
+		DFABuilder builder = new DFABuilder(ab());
+		int q0 = builder.addState();
+		builder.setInitial(q0).setFinal(q0, true).addTransition(q0, 'a', q0);
+		CompiledDFA dfa = builder.build();
+		assertTrue(dfa.accepts("aaa"));
+		assertFalse(dfa.accepts("ab"));
+		assertEquals(dfa.deadState(), dfa.step(q0, 'b'));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonDeterministic() {
+		DFABuilder builder = new DFABuilder(ab());
+		int q0 = builder.addStates(2);
+		builder.addTransition(q0, 'a', q0);
+		builder.addTransition(q0, 'a', q0 + 1);
+	}
+
+	@Test
+	public void testRepeatedTransition() {
+		DFABuilder builder = new DFABuilder(ab());
+		int q0 = builder.addState();
+		builder.addTransition(q0, 'a', q0).addTransition(q0, 'a', q0);
+		assertEquals(q0, builder.build().step(q0, 'a'));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownState() {
+		DFABuilder builder = new DFABuilder(ab());
+		int q0 = builder.addState();
+		builder.addTransition(q0, 'a', q0 + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownSymbol() {
+		NFABuilder builder = new NFABuilder(ab());
+		int q0 = builder.addState();
+		builder.addTransition(q0, 'c', q0);
+	}
+
+	@Test
+	public void testLongChain() {
+		// a^n built without an object per arc
+		int n = 200000;
+		DFABuilder builder = new DFABuilder(ab());
+		int first = builder.addStates(n + 1);
+		for (int i = 0; i < n; i++) {
+			builder.addTransition(first + i, 0, first + i + 1);
+		}
+		builder.setInitial(first).setFinal(first + n, true);
+		CompiledDFA dfa = builder.build();
+		char[] input = new char[n];
+		Arrays.fill(input, 'a');
+		assertTrue(dfa.accepts(new String(input)));
+		assertFalse(dfa.accepts(new String(input, 1, n - 1)));
+	}
+
+	@Test
+	public void testNFABuilder() {
+		// a*b, with the a loop reached through a lambda arc
+		NFABuilder builder = new NFABuilder(ab());
+		int q0 = builder.addStates(3);
+		builder.setInitial(q0).setFinal(q0 + 2, true);
+		builder.addLambda(q0, q0 + 1);
+		builder.addTransition(q0 + 1, 'a', q0 + 1);
+		builder.addTransition(q0 + 1, 'b', q0 + 2);
+		CompiledNFA nfa = builder.build();
+		assertTrue(nfa.accepts("b"));
+		assertTrue(nfa.accepts("aab"));
+		assertFalse(nfa.accepts("aba"));
+		assertTrue(nfa.determinize().accepts("ab"));
+	}
+
+	@Test
+	public void testNFABuilderWithoutInitial() {
+		NFABuilder builder = new NFABuilder(ab());
+		int q0 = builder.addState();
+		builder.setFinal(q0, true);
+		assertFalse(builder.build().accepts(""));
+	}
+}
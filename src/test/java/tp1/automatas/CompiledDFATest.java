@@ -0,0 +1,176 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.TestFiles;
+
+public class CompiledDFATest {
+
+	private static DFA dfa;
+	private static CompiledDFA compiled;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception{
+		dfa = TestFiles.dfa("dfa4");
+		compiled = dfa.compile();
+	}
+
+	@Test
+	public void testStateCount() {
+		// 20 states plus the dead state
+		assertEquals(21, compiled.stateCount());
+		assertEquals(20, compiled.deadState());
+		assertFalse(compiled.isAccepting(compiled.deadState()));
+	}
+
+	@Test
+	public void testInitialState() {
+		assertEquals("q0", compiled.stateName(compiled.initialState()));
+	}
+
+	@Test
+	public void testAccept() {
+		assertTrue(compiled.accepts("automatas"));
+		assertTrue(compiled.accepts("y"));
+		assertTrue(compiled.accepts("lenguajes"));
+	}
+
+	@Test
+	public void testNoAccept() {
+		assertFalse(compiled.accepts(""));
+		assertFalse(compiled.accepts("automata"));
+		assertFalse(compiled.accepts("yy"));
+	}
+
+	@Test
+	public void testStep() {
+		int s = compiled.step(compiled.initialState(), 'y');
+		assertEquals("q10", compiled.stateName(s));
+		assertEquals(compiled.deadState(), compiled.step(s, 'y'));
+		assertEquals(-1, compiled.step(s, 'z'));
+	}
+
+	@Test
+	public void testInvalidSymbolAfterDeadState() {
+		assertThrows(IllegalArgumentException.class, ()-> {
+			compiled.accepts("yyz");
+		});
+	}
+
+	@Test
+	public void testAcceptsSeesChanges() throws Exception {
+		// aab*
+		DFA changing = TestFiles.dfa("dfa5");
+		CompiledDFA before = changing.compile();
+		assertFalse(changing.accepts("a"));
+
+		changing.getStates().belongTo("q1").setFinal(true);
+		assertTrue(changing.accepts("a"));
+
+		State q2 = changing.getStates().belongTo("q2");
+		StateSet loop = new StateSet();
+		loop.addState(q2);
+		changing.delta.get(q2).put('a', loop);
+		assertTrue(changing.accepts("aaab"));
+
+		// compiled forms are snapshots
+		assertFalse(before.accepts("a"));
+		assertFalse(before.accepts("aaab"));
+		assertTrue(changing.compile().accepts("aaab"));
+	}
+
+	@Test
+	public void testAcceptsKeepsTableUntilChanged() throws Exception {
+		// aab*
+		DFA changing = TestFiles.dfa("dfa5");
+		FrozenFA table = changing.compiled();
+		assertTrue(changing.accepts("aab"));
+		assertTrue(table == changing.compiled());
+
+		changing.getAlphabet().addSymbol('c');
+		assertFalse(table == changing.compiled());
+		assertFalse(changing.accepts("aac"));
+		table = changing.compiled();
+
+		State q2 = changing.getStates().belongTo("q2");
+		StateSet loop = changing.successors(q2, 'b');
+		loop.deleteState("q2");
+		assertFalse(table == changing.compiled());
+		assertFalse(changing.accepts("aab"));
+		loop.addState(q2);
+		assertTrue(changing.accepts("aab"));
+	}
+
+	@Test
+	public void testAcceptsSeesChangesThroughViews() throws Exception {
+		// aab*
+		DFA changing = TestFiles.dfa("dfa5");
+		State q2 = changing.getStates().belongTo("q2");
+		assertTrue(changing.accepts("aabb"));
+
+		Iterator<Character> labels = changing.delta.get(q2).keySet().iterator();
+		while (labels.hasNext()) {
+			if (labels.next() == 'b')
+				labels.remove();
+		}
+		assertFalse(changing.accepts("aabb"));
+
+		StateSet loop = new StateSet();
+		loop.addState(q2);
+		changing.delta.get(q2).put('b', loop);
+		for (Map.Entry<Character, StateSet> arc : changing.delta.get(q2).entrySet()) {
+			if (arc.getKey() == 'a')
+				arc.setValue(loop);
+		}
+		assertTrue(changing.accepts("aabab"));
+
+		// maps not made by the automaton are not tracked, but still seen
+		HashMap<Character, StateSet> arcs = new HashMap<Character, StateSet>();
+		changing.delta.put(q2, arcs);
+		assertFalse(changing.accepts("aab"));
+		arcs.put('b', loop);
+		assertTrue(changing.accepts("aab"));
+	}
+
+	@Test
+	public void testMinimizeMergesSink() throws Exception {
+		// q3 of dfa5 is a sink, equivalent to the dead state
+		CompiledDFA minimal = TestFiles.dfa("dfa5").compile().minimize();
+		assertEquals(4, minimal.stateCount());
+		assertEquals(0, minimal.initialState());
+		assertTrue(minimal.accepts("aabb"));
+		assertFalse(minimal.accepts("aaba"));
+	}
+
+	@Test
+	public void testMinimizeIsCanonical() throws Exception {
+		DFA dfa2 = TestFiles.dfa("dfa2");
+		DFA dfa3 = TestFiles.dfa("dfa3");
+		CompiledDFA m1 = dfa2.union(dfa3).compile().minimize();
+		CompiledDFA m2 = dfa3.union(dfa2).compile().minimize();
+		assertEquals(m1, m2);
+		assertEquals(m1, m1.minimize());
+		assertFalse(m1.equals(dfa2.compile().minimize()));
+	}
+
+	@Test
+	public void testMinimizeKeepsLanguage() throws Exception {
+		DFA minimal = dfa.minimize();
+		assertTrue(minimal.repOk());
+		// the three final states merge, and so do q8 and q18
+		assertEquals(17, minimal.getStates().size());
+		assertTrue(minimal.accepts("automatas"));
+		assertTrue(minimal.accepts("lenguajes"));
+		assertFalse(minimal.accepts("automata"));
+	}
+}
@@ -0,0 +1,135 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.TestFiles;
+
+public class CompiledNFATest {
+
+	private static NFA nfa;
+	private static NFALambda nfal;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception{
+		nfa = TestFiles.nfa("nfa1");
+		nfal = TestFiles.nfaLambda("nfalambda2");
+	}
+
+	@Test(timeout = 4000)
+	public void testNoBacktracking() throws AutomatonException {
+		// (a|b)*a(a|b)^24, whose paths grow exponentially with the input
+		NFA blowup = new AutomatonGenerator(1).nthFromLast(25).toNFA();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			sb.append('a');
+		}
+		assertTrue(blowup.accepts(sb.toString()));
+		sb.append('b');
+		assertTrue(blowup.accepts(sb.toString()));
+		sb.setCharAt(sb.length() - 25, 'b');
+		assertFalse(blowup.accepts(sb.toString()));
+	}
+
+	@Test
+	public void testLambdaClosures() {
+		CompiledNFA compiled = nfal.compile();
+		assertTrue(compiled.accepts("casa"));
+		assertTrue(compiled.accepts("casacasa"));
+		assertFalse(compiled.accepts(""));
+		assertFalse(compiled.accepts("casac"));
+	}
+
+	@Test(timeout = 4000)
+	public void testLambdaCycle() throws Exception {
+		NFALambda cycle = new AutomatonGenerator(1).lambdaCycle(50).toNFALambda();
+		assertTrue(cycle.compile().closures != null);
+		assertTrue(cycle.accepts(""));
+		assertTrue(cycle.accepts("a"));
+		assertTrue(cycle.accepts("abababab"));
+		assertTrue(cycle.compile().accepts("abababab"));
+	}
+
+	@Test(timeout = 4000)
+	public void testLambdaChainOverBudget() {
+		CompiledNFA chain = new AutomatonGenerator(1).lambdaChain(20000).compileNFA();
+		assertTrue(chain.closures == null);
+		assertTrue(chain.accepts(""));
+		assertTrue(chain.accepts("aaa"));
+	}
+
+	@Test(timeout = 4000)
+	public void testDeterminize() throws AutomatonException {
+		NFA blowup = new AutomatonGenerator(1).nthFromLast(11).toNFA();
+		CompiledDFA dfa = blowup.compile().determinize();
+		// every subset holds the initial state, so only the dead state is added
+		assertEquals((1 << 11) + 1, dfa.stateCount());
+		assertTrue(dfa.accepts("abbbbbbbbbb"));
+		assertFalse(dfa.accepts("abbbbbbbbbbb"));
+	}
+
+	@Test
+	public void testAcceptsSeesChanges() throws Exception {
+		NFA changing = TestFiles.nfa("nfa1");
+		assertFalse(changing.accepts("a"));
+		changing.getStates().belongTo("q3").setFinal(true);
+		assertTrue(changing.accepts("a"));
+		changing.delta.get(changing.getStates().belongTo("q4")).remove('a');
+		assertFalse(changing.accepts("aba"));
+		assertTrue(changing.accepts("ab"));
+	}
+
+	@Test
+	public void testLambdaAcceptsSeesChanges() throws Exception {
+		// ca*|a*
+		NFALambda changing = TestFiles.nfaLambda("nfalambda1");
+		CompiledNFA before = changing.compile();
+		assertTrue(changing.accepts(""));
+		assertTrue(changing.accepts("aa"));
+
+		changing.delta.get(changing.getStates().belongTo("q0")).remove(null);
+		assertFalse(changing.accepts(""));
+		assertFalse(changing.accepts("aa"));
+		assertTrue(changing.accepts("caa"));
+		changing.getStates().belongTo("q1").setFinal(true);
+		assertTrue(changing.accepts("c"));
+
+		// compiled forms are snapshots
+		assertTrue(before.accepts("aa"));
+		assertFalse(before.accepts("c"));
+	}
+
+	@Test
+	public void testLambdaAcceptsKeepsClosures() throws Exception {
+		// ca*|a*
+		NFALambda changing = TestFiles.nfaLambda("nfalambda1");
+		assertTrue(changing.accepts("aa"));
+		CompiledNFA compiled = (CompiledNFA) changing.compiled();
+		assertTrue(compiled.closures != null);
+		assertFalse(changing.accepts("c"));
+		assertTrue(compiled == changing.compiled());
+
+		// a lambda arc from q1 to q2 makes ca*|a* into c?a*
+		State q1 = changing.getStates().belongTo("q1");
+		StateSet lambda = new StateSet();
+		changing.delta.get(q1).put(null, lambda);
+		assertFalse(changing.accepts("c"));
+		lambda.addState(changing.getStates().belongTo("q2"));
+		assertTrue(changing.accepts("c"));
+		assertFalse(compiled == changing.compiled());
+	}
+
+	@Test
+	public void testDeterminizeLambda() throws Exception {
+		DFA dfa = nfal.toDFA();
+		assertTrue(dfa.repOk());
+		assertEquals("q0", dfa.initialState().getName());
+		assertTrue(dfa.accepts("casacasa"));
+		assertFalse(dfa.accepts("casac"));
+	}
+}
@@ -0,0 +1,172 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.TestFiles;
+
+public class DFAFileTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private BufferDFA roundTrip(CompiledDFA dfa) throws Exception {
+		Path path = folder.newFile().toPath();
+		DFAFile.write(dfa, path);
+		return DFAFile.load(path);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		CompiledDFA dfa = TestFiles.dfa("dfa4").compile();
+		BufferDFA loaded = roundTrip(dfa);
+		assertEquals(dfa.stateCount(), loaded.stateCount());
+		assertEquals(dfa.initialState(), loaded.initialState());
+		assertEquals(dfa.deadState(), loaded.deadState());
+		assertEquals(dfa, loaded.toCompiledDFA());
+	}
+
+	@Test
+	public void testAgreesWithAccepts() throws Exception {
+		for (int seed = 0; seed < 10; seed++) {
+			AutomatonGenerator generator = new AutomatonGenerator(seed, 'a', 'b', 'c');
+			CompiledDFA dfa = generator.random(100 + seed).compileDFA();
+			BufferDFA loaded = roundTrip(dfa);
+			for (int length = 0; length < 50; length++) {
+				String input = generator.input(length);
+				assertEquals(dfa.accepts(input), loaded.accepts(input));
+				Matcher matcher = loaded.matcher();
+				matcher.feed(input, 0, input.length());
+				assertEquals(dfa.accepts(input), matcher.isAccepting());
+			}
+		}
+	}
+
+	@Test
+	public void testSemantics() throws Exception {
+		// aab*
+		BufferDFA loaded = roundTrip(TestFiles.dfa("dfa5").compile());
+		assertTrue(loaded.accepts("aabbb"));
+		assertFalse(loaded.accepts("ab"));
+		assertEquals(-1, loaded.step(loaded.initialState(), 'z'));
+		assertThrows(IllegalArgumentException.class, () -> loaded.accepts(null));
+		assertThrows(IllegalArgumentException.class, () -> loaded.accepts("bz"));
+	}
+
+	@Test
+	public void testMillionStates() throws Exception {
+		CompiledDFA dfa = new AutomatonGenerator(7).random(1000000).compileDFA();
+		BufferDFA loaded = roundTrip(dfa);
+		assertEquals(dfa.stateCount(), loaded.stateCount());
+		String input = new AutomatonGenerator(8).input(100000);
+		assertEquals(dfa.accepts(input), loaded.accepts(input));
+	}
+
+	@Test
+	public void testCellWidths() throws Exception {
+		int[] sizes = { 255, 256, 65535, 65536 };
+		int[] widths = { 1, 2, 2, 4 };
+		for (int i = 0; i < sizes.length; i++) {
+			AutomatonGenerator generator = new AutomatonGenerator(i);
+			// the dead state makes one more
+			CompiledDFA dfa = generator.random(sizes[i]).compileDFA();
+			BufferDFA offHeap = dfa.toOffHeap();
+			assertEquals(widths[i], offHeap.cellBytes());
+			assertEquals(dfa, offHeap.toCompiledDFA());
+			BufferDFA loaded = roundTrip(dfa);
+			assertEquals(widths[i], loaded.cellBytes());
+			assertEquals(dfa, loaded.toCompiledDFA());
+			for (int length = 0; length < 200; length += 7) {
+				String input = generator.input(length);
+				assertEquals(dfa.accepts(input), offHeap.accepts(input));
+				assertEquals(dfa.accepts(input), loaded.accepts(input));
+			}
+		}
+	}
+
+	@Test
+	public void testCorruptChecksum() throws Exception {
+		Path path = folder.newFile().toPath();
+		CompiledDFA dfa = TestFiles.dfa("dfa4").compile();
+		DFAFile.write(dfa, path);
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			// first cell of the table, one byte per cell
+			long first = file.length() - dfa.stateCount() * dfa.width;
+			file.seek(first);
+			int cell = file.read();
+			file.seek(first);
+			file.write(cell ^ 1);
+		}
+		assertThrows(AutomatonException.class, () -> DFAFile.load(path, true));
+		// verification is opt-in, without it the corruption goes unnoticed
+		assertEquals(21, DFAFile.load(path).stateCount());
+	}
+
+	@Test
+	public void testDeadStateIsSink() throws Exception {
+		Path path = folder.newFile().toPath();
+		DFAFile.write(TestFiles.dfa("dfa4").compile(), path);
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			// last cell of the dead state's row, back to the initial state
+			file.seek(file.length() - 1);
+			file.write(0);
+		}
+		AutomatonException e = assertThrows(AutomatonException.class, () -> DFAFile.load(path));
+		assertTrue(e.getMessage().contains("sink"));
+	}
+
+	@Test
+	public void testAcceptingDeadState() throws Exception {
+		Path path = folder.newFile().toPath();
+		CompiledDFA dfa = TestFiles.dfa("dfa4").compile();
+		DFAFile.write(dfa, path);
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			// bit 20 of the accepting states, right before the table
+			long accepting = file.length() - dfa.stateCount() * dfa.width - 8;
+			file.seek(accepting + 2);
+			int bits = file.read();
+			file.seek(accepting + 2);
+			file.write(bits | 1 << 4);
+		}
+		AutomatonException e = assertThrows(AutomatonException.class, () -> DFAFile.load(path));
+		assertTrue(e.getMessage().contains("accepting dead state"));
+	}
+
+	@Test
+	public void testVersionOne() throws Exception {
+		Path path = folder.newFile().toPath();
+		DFAFile.write(TestFiles.dfa("dfa4").compile(), path);
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.seek(4);
+			file.write(1);
+		}
+		assertThrows(AutomatonException.class, () -> DFAFile.load(path));
+	}
+
+	@Test
+	public void testWrongVersion() throws Exception {
+		Path path = folder.newFile().toPath();
+		DFAFile.write(TestFiles.dfa("dfa4").compile(), path);
+		try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+			file.seek(4);
+			file.write(99);
+		}
+		assertThrows(AutomatonException.class, () -> DFAFile.load(path));
+	}
+
+	@Test
+	public void testNotAnAutomaton() throws Exception {
+		Path path = folder.newFile().toPath();
+		assertThrows(AutomatonException.class, () -> DFAFile.load(path));
+	}
+}
@@ -0,0 +1,99 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.DotReader;
+import tp1.utils.TestFiles;
+
+public class FrozenFATest {
+
+	@Test
+	public void testSnapshotIgnoresLaterChanges() throws Exception {
+		// aab*
+		DotReader dotReader = TestFiles.read("dfa5");
+		DFA dfa = new DFA(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+		FrozenFA before = dfa.freeze();
+		dfa.getStates().belongTo("q1").setFinal(true);
+		FrozenFA after = dfa.freeze();
+
+		assertFalse(before.accepts("a"));
+		assertTrue(after.accepts("a"));
+		assertTrue(before.accepts("aab"));
+		assertTrue(after.accepts("aab"));
+	}
+
+	@Test
+	public void testFreezeNFA() throws Exception {
+		// (casa)+
+		DotReader dotReader = TestFiles.read("nfalambda2");
+		FrozenFA frozen = new NFALambda(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs()).freeze();
+		assertTrue(frozen.accepts("casacasa"));
+		assertFalse(frozen.accepts(""));
+
+		dotReader = TestFiles.read("nfa1");
+		NFA nfa = new NFA(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+		frozen = nfa.freeze();
+		for (String input : new String[] { "", "ab", "aba", "abaa", "ba" }) {
+			assertEquals(nfa.accepts(input), frozen.accepts(input));
+		}
+	}
+
+	@Test
+	public void testSharedAcrossThreads() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(3);
+		List<FrozenFA> automata = new ArrayList<FrozenFA>();
+		automata.add(generator.random(500).toDFA().freeze());
+		automata.add(generator.nthFromLast(6).toNFA().freeze());
+		automata.add(generator.randomLambda(40, 2).toNFALambda().freeze());
+
+		final List<String> inputs = new ArrayList<String>();
+		for (int i = 0; i < 500; i++) {
+			inputs.add(generator.input(i % 97));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		try {
+			for (final FrozenFA frozen : automata) {
+				final boolean[] expected = new boolean[inputs.size()];
+				for (int i = 0; i < expected.length; i++) {
+					expected[i] = frozen.accepts(inputs.get(i));
+				}
+				List<Future<Integer>> mismatches = new ArrayList<Future<Integer>>();
+				for (int t = 0; t < 64; t++) {
+					mismatches.add(executor.submit(new Callable<Integer>() {
+						@Override
+						public Integer call() {
+							int count = 0;
+							for (int i = 0; i < expected.length; i++) {
+								if (frozen.accepts(inputs.get(i)) != expected[i])
+									count++;
+								Matcher matcher = frozen.matcher();
+								matcher.feed(inputs.get(i), 0, inputs.get(i).length());
+								if (matcher.isAccepting() != expected[i])
+									count++;
+							}
+							return count;
+						}
+					}));
+				}
+				for (Future<Integer> mismatch : mismatches) {
+					assertEquals(0, mismatch.get().intValue());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
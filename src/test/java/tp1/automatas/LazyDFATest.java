@@ -0,0 +1,63 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.TestFiles;
+
+public class LazyDFATest {
+
+	private static NFALambda nfal;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception{
+		nfal = TestFiles.nfaLambda("nfalambda1");
+	}
+
+	@Test
+	public void testAccept() {
+		LazyDFA lazy = nfal.lazyDFA(100);
+		assertTrue(lazy.accepts(""));
+		assertTrue(lazy.accepts("a"));
+		assertTrue(lazy.accepts("caaaa"));
+		assertFalse(lazy.accepts("ac"));
+		assertFalse(lazy.accepts("c"));
+	}
+
+	@Test
+	public void testTransitionsAreCached() {
+		LazyDFA lazy = nfal.lazyDFA(100);
+		lazy.accepts("caaa");
+		int cached = lazy.cachedStates();
+		lazy.accepts("caaaaaaa");
+		assertEquals(cached, lazy.cachedStates());
+		assertEquals(0, lazy.flushes());
+	}
+
+	@Test
+	public void testSmallBudget() throws AutomatonException {
+		// (a|b)*a(a|b)^10, whose subset automaton has 2^11 states
+		NFA nfa = new AutomatonGenerator(1).nthFromLast(11).toNFA();
+		LazyDFA lazy = nfa.lazyDFA(8);
+		Random random = new Random(42);
+
+		for (int k = 0; k < 200; k++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(60);
+			for (int i = 0; i < length; i++) {
+				sb.append(random.nextBoolean() ? 'a' : 'b');
+			}
+			String input = sb.toString();
+			assertEquals(input, nfa.accepts(input), lazy.accepts(input));
+			assertTrue(lazy.cachedStates() <= 8);
+		}
+		assertTrue(lazy.flushes() > 0);
+	}
+}
@@ -0,0 +1,135 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.TestFiles;
+
+public class MatcherTest {
+
+	// aab*
+	private static DFA dfa5;
+	// ab | aba*
+	private static NFA nfa1;
+	// (casa)+ with a lambda back to the start
+	private static NFALambda nfalambda2;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		dfa5 = TestFiles.dfa("dfa5");
+		nfa1 = TestFiles.nfa("nfa1");
+		nfalambda2 = TestFiles.nfaLambda("nfalambda2");
+	}
+
+	@Test
+	public void testFeedByPieces() throws Exception {
+		Matcher matcher = dfa5.matcher();
+		assertFalse(matcher.isAccepting());
+		matcher.feed('a');
+		matcher.feed("xaby", 1, 2);
+		assertTrue(matcher.isAccepting());
+		matcher.feed(CharBuffer.wrap("bbb"));
+		assertTrue(matcher.isAccepting());
+		matcher.feed('a');
+		assertFalse(matcher.isAccepting());
+	}
+
+	@Test
+	public void testAgreesWithAccepts() throws Exception {
+		String[] inputs = { "", "c", "casa", "casacasa", "casac", "cas" };
+		for (String input : inputs) {
+			Matcher matcher = nfalambda2.matcher();
+			for (int i = 0; i < input.length(); i++) {
+				matcher.feed(input.charAt(i));
+			}
+			assertEquals(input, nfalambda2.accepts(input), matcher.isAccepting());
+		}
+	}
+
+	@Test
+	public void testDead() throws Exception {
+		Matcher matcher = nfa1.matcher();
+		matcher.feed("ab", 0, 2);
+		assertTrue(matcher.isAccepting());
+		assertFalse(matcher.isDead());
+		matcher.feed('b');
+		assertTrue(matcher.isDead());
+		assertFalse(matcher.isAccepting());
+
+		// the trap state of dfa5 becomes the dead state once minimized
+		matcher = dfa5.minimize().matcher();
+		matcher.feed('b');
+		assertTrue(matcher.isDead());
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		Matcher matcher = nfa1.matcher();
+		matcher.feed('b');
+		matcher.reset();
+		matcher.feed("aba", 0, 3);
+		assertTrue(matcher.isAccepting());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCharacterAfterDead() throws Exception {
+		Matcher matcher = nfa1.matcher();
+		matcher.feed('b');
+		matcher.feed('z');
+	}
+
+	@Test
+	public void testDrainReader() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(2);
+		DFA dfa = generator.random(100).toDFA();
+		String input = generator.input(50000);
+		assertEquals(dfa.accepts(input), Matcher.drain(dfa.matcher(), new StringReader(input)));
+	}
+
+	@Test
+	public void testDrainStopsWhenDead() throws Exception {
+		// an endless stream of b's
+		Reader endless = new Reader() {
+			@Override
+			public int read(char[] buffer, int offset, int length) {
+				Arrays.fill(buffer, offset, offset + length, 'b');
+				return length;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		assertFalse(Matcher.drain(nfa1.matcher(), endless));
+	}
+
+	@Test
+	public void testDrainChannel() throws Exception {
+		// two byte characters in UTF-8, split across chunks
+		AutomatonGenerator generator = new AutomatonGenerator(3, 'á', 'é');
+		NFALambda nfaLambda = generator.randomLambda(50, 2).toNFALambda();
+		String input = generator.input(30001);
+		byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+		assertEquals(nfaLambda.accepts(input),
+				Matcher.drain(nfaLambda.matcher(), new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+	}
+
+	@Test(expected = CharacterCodingException.class)
+	public void testDrainMalformed() throws Exception {
+		byte[] bytes = { 'a', (byte) 0xff };
+		Matcher.drain(dfa5.matcher(), new ByteArrayInputStream(bytes), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,87 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.TestFiles;
+
+public class MultiPatternDFATest {
+
+	// (bb)*, a(aa)*, aab*
+	private static MultiPatternDFA multi;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		multi = new MultiPatternDFA(Arrays.asList(TestFiles.dfa("dfa2"), TestFiles.dfa("dfa3"), TestFiles.dfa("dfa5")));
+	}
+
+	@Test
+	public void testMatches() {
+		assertEquals(3, multi.patternCount());
+		assertArrayEquals(new int[] { 0 }, multi.matches(""));
+		assertArrayEquals(new int[] { 1 }, multi.matches("aaa"));
+		assertArrayEquals(new int[] { 2 }, multi.matches("aabb"));
+		assertArrayEquals(new int[] { 0 }, multi.matches("bbbb"));
+		assertArrayEquals(new int[0], multi.matches("ab"));
+		assertFalse(multi.matchesAny("ab"));
+		assertTrue(multi.matchesAny("a"));
+	}
+
+	@Test
+	public void testMatchSet() {
+		BitSet expected = new BitSet();
+		expected.set(2);
+		assertEquals(expected, multi.matchSet("aab"));
+	}
+
+	@Test
+	public void testOverlappingPatterns() throws Exception {
+		// (a|b)* accepts together with the others
+		DFA all = new Alphabet(new HashSet<Character>(Arrays.asList('a', 'b'))).sigmaStar();
+		MultiPatternDFA withAll = new MultiPatternDFA(Arrays.asList(TestFiles.dfa("dfa3"), all, TestFiles.dfa("dfa5")));
+		assertArrayEquals(new int[] { 0, 1 }, withAll.matches("a"));
+		assertArrayEquals(new int[] { 1, 2 }, withAll.matches("aa"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCharacter() {
+		multi.matches("abc");
+	}
+
+	@Test
+	public void testAgreesWithAccepts() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(21);
+		List<DFA> patterns = new ArrayList<DFA>();
+		for (int p = 0; p < 8; p++) {
+			patterns.add(p % 2 == 0 ? generator.random(4).toDFA() : generator.sparse(5).toDFA());
+		}
+		MultiPatternDFA combined = new MultiPatternDFA(patterns);
+		for (int i = 0; i < 500; i++) {
+			String input = generator.input(i % 15);
+			BitSet expected = new BitSet();
+			for (int p = 0; p < patterns.size(); p++) {
+				if (patterns.get(p).accepts(input))
+					expected.set(p);
+			}
+			assertEquals(input, expected, combined.matchSet(input));
+		}
+	}
+
+	@Test(expected = AutomatonException.class)
+	public void testMaxStates() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(22);
+		new MultiPatternDFA(Arrays.asList(generator.random(50).toDFA(), generator.random(50).toDFA()), 10);
+	}
+}
@@ -1,8 +1,10 @@
 package tp1.automatas;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Set;
@@ -117,4 +119,38 @@ public class NFALambdaAutomatonMethodsTests1 {
 		assertFalse(dfa.accepts("ac"));
 		assertFalse(dfa.accepts("c"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testMoveLambda() throws CloneNotSupportedException, AutomatonException {
+		Queue<State> start = new LinkedList<State>();
+		start.add(nfal.initialState());
+
+		Queue<State> reached = nfal.move(start, null);
+		assertEquals(1, reached.size());
+		assertEquals("q2", reached.peek().getName());
+		assertTrue(nfal.move(start, 'a').isEmpty());
+	}
+
+	@SuppressWarnings("deprecation")
+	@Test
+	public void testBuildTransitions() throws CloneNotSupportedException, AutomatonException {
+		Queue<State> start = new LinkedList<State>();
+		start.add(nfal.initialState());
+		Queue<State> first = nfal.closure(start);
+		Queue<State> second = nfal.closure(nfal.move(first, 'a'));
+
+		Queue<Queue<State>> visited = new LinkedList<Queue<State>>();
+		visited.add(first);
+		visited.add(second);
+		Set<Tupla<Queue<State>, Character, Queue<State>>> arcs = new HashSet<Tupla<Queue<State>, Character, Queue<State>>>();
+		arcs.add(new Tupla<Queue<State>, Character, Queue<State>>(first, 'a', second));
+		arcs.add(new Tupla<Queue<State>, Character, Queue<State>>(second, 'a', second));
+
+		Tupla<StateSet, Set<Tupla<State, Character, State>>, Character> built = nfal.buildTransitions(arcs, visited);
+		assertEquals(2, built.first().size());
+		assertTrue(built.first().belongTo("q0").isInitial());
+		assertTrue(built.first().belongTo("q0").isFinal());
+		assertFalse(built.first().belongTo("q1").isInitial());
+		assertEquals(2, built.second().size());
+	}
+}
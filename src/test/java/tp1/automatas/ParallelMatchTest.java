@@ -0,0 +1,90 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+
+public class ParallelMatchTest {
+
+	private static ExecutorService executor;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testAgreesWithAccepts() {
+		for (int seed = 0; seed < 20; seed++) {
+			AutomatonGenerator generator = new AutomatonGenerator(seed);
+			CompiledDFA dfa = generator.random(200).compileDFA();
+			String input = generator.input(10000 + seed);
+			assertEquals(dfa.accepts(input), ParallelMatch.accepts(dfa, input, executor, 7));
+		}
+	}
+
+	@Test
+	public void testPartialDFA() {
+		// sparse automata reach the dead state, which must be carried over chunks
+		for (int seed = 0; seed < 20; seed++) {
+			AutomatonGenerator generator = new AutomatonGenerator(seed);
+			CompiledDFA dfa = generator.sparse(50).compileDFA();
+			String input = generator.input(seed % 4);
+			assertEquals(dfa.accepts(input), ParallelMatch.accepts(dfa, input, executor, 3));
+		}
+	}
+
+	@Test
+	public void testMap() {
+		AutomatonGenerator generator = new AutomatonGenerator(3);
+		CompiledDFA dfa = generator.random(30).compileDFA();
+		String input = generator.input(100);
+		int[] starts = new int[dfa.stateCount()];
+		int[] expected = new int[dfa.stateCount()];
+		for (int s = 0; s < starts.length; s++) {
+			starts[s] = s;
+			expected[s] = s;
+			for (int i = 0; i < input.length(); i++) {
+				expected[s] = dfa.step(expected[s], input.charAt(i));
+			}
+		}
+		assertArrayEquals(expected, ParallelMatch.map(dfa, input, 0, input.length(), starts));
+	}
+
+	@Test
+	public void testLongInput() {
+		AutomatonGenerator generator = new AutomatonGenerator(8);
+		CompiledDFA dfa = generator.random(1000).compileDFA();
+		String input = generator.input(4 * ParallelMatch.MIN_CHUNK + 17);
+		assertEquals(dfa.accepts(input), dfa.acceptsParallel(input, executor));
+		assertEquals(dfa.accepts(input), ParallelMatch.accepts(dfa, input, executor, 4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCharacter() {
+		CompiledDFA dfa = new AutomatonGenerator(1).sparse(10).compileDFA();
+		// the dead state is reached at once, the c is found by the last chunk
+		ParallelMatch.accepts(dfa, "bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbc", executor, 4);
+	}
+
+	@Test
+	public void testShortInput() {
+		CompiledDFA dfa = new AutomatonGenerator(1).random(10).compileDFA();
+		// some chunks are empty
+		assertEquals(dfa.accepts(""), ParallelMatch.accepts(dfa, "", executor, 4));
+		assertEquals(dfa.accepts("ab"), ParallelMatch.accepts(dfa, "ab", executor, 4));
+	}
+}
@@ -0,0 +1,84 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.TestFiles;
+
+public class ProductTest {
+
+	// (bb)*
+	private static DFA dfa2;
+	// a(aa)*
+	private static DFA dfa3;
+	// aab*
+	private static DFA dfa5;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception{
+		dfa2 = TestFiles.dfa("dfa2");
+		dfa3 = TestFiles.dfa("dfa3");
+		dfa5 = TestFiles.dfa("dfa5");
+	}
+
+	@Test
+	public void testUnion() throws Exception {
+		DFA union = dfa2.union(dfa3);
+		assertTrue(union.repOk());
+		assertTrue(union.getAlphabet().belongsTo('a'));
+		assertTrue(union.getAlphabet().belongsTo('b'));
+		assertTrue(union.accepts(""));
+		assertTrue(union.accepts("aaa"));
+		assertTrue(union.accepts("bb"));
+		assertFalse(union.accepts("ab"));
+		assertFalse(union.accepts("aa"));
+	}
+
+	@Test
+	public void testIntersection() throws Exception {
+		DFA intersection = dfa2.union(dfa5).intersection(dfa5);
+		assertTrue(intersection.repOk());
+		assertTrue(intersection.accepts("aa"));
+		assertTrue(intersection.accepts("aabb"));
+		assertFalse(intersection.accepts("bb"));
+		assertFalse(intersection.accepts(""));
+	}
+
+	@Test
+	public void testEmptyIntersection() throws Exception {
+		// only the dead state is left
+		CompiledDFA intersection = dfa2.compile().intersection(dfa3.compile()).minimize();
+		assertEquals(1, intersection.stateCount());
+		assertEquals(intersection.deadState(), intersection.initialState());
+	}
+
+	@Test
+	public void testDifference() throws Exception {
+		DFA difference = dfa2.union(dfa5).difference(dfa2);
+		assertTrue(difference.accepts("aab"));
+		assertTrue(difference.accepts("aabb"));
+		assertFalse(difference.accepts("bb"));
+		assertFalse(difference.accepts(""));
+	}
+
+	@Test
+	public void testSymmetricDifference() throws Exception {
+		DFA symmetric = dfa2.union(dfa5).symmetricDifference(dfa5);
+		assertTrue(symmetric.accepts(""));
+		assertTrue(symmetric.accepts("bb"));
+		assertFalse(symmetric.accepts("aab"));
+		assertFalse(symmetric.accepts("b"));
+	}
+
+	@Test
+	public void testAgreesWithComplement() throws Exception {
+		// dfa5 is complete, so its complement is exact
+		DFA union = dfa2.union(dfa5);
+		CompiledDFA viaComplement = union.compile().intersection(dfa5.complement().compile());
+		assertEquals(union.compile().difference(dfa5.compile()).minimize(), viaComplement.minimize());
+	}
+}
@@ -0,0 +1,225 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.TestFiles;
+
+public class SearcherTest {
+
+	private static List<String> spans(Searcher searcher, String text, Searcher.Mode mode) {
+		final List<String> spans = new ArrayList<String>();
+		searcher.search(text, mode, (start, end) -> spans.add(start + "-" + end));
+		return spans;
+	}
+
+	// every span, checked with accepts
+	private static List<String> allSpans(CompiledDFA dfa, String text) {
+		List<String> spans = new ArrayList<String>();
+		for (int end = 0; end <= text.length(); end++) {
+			for (int start = end; start >= 0; start--) {
+				if (accepts(dfa, text.substring(start, end)))
+					spans.add(start + "-" + end);
+			}
+		}
+		return spans;
+	}
+
+	// leftmost start, first end, then from the end on
+	private static List<String> leftmostSpans(CompiledDFA dfa, String text) {
+		List<String> spans = new ArrayList<String>();
+		int p = 0;
+		while (p <= text.length()) {
+			int found = -1;
+			for (int start = p; start <= text.length() && found < 0; start++) {
+				for (int end = start; end <= text.length(); end++) {
+					if (accepts(dfa, text.substring(start, end))) {
+						spans.add(start + "-" + end);
+						found = end > start ? end : end + 1;
+						break;
+					}
+				}
+			}
+			if (found < 0)
+				break;
+			p = found;
+		}
+		return spans;
+	}
+
+	private static boolean accepts(CompiledDFA dfa, String s) {
+		try {
+			return dfa.accepts(s);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testPattern() throws Exception {
+		// 20*3
+		Searcher searcher = new Searcher(TestFiles.dfa("pattern-dfa"));
+		String text = "log 2003, 23 and 2 03 then 20000003";
+		List<String> expected = new ArrayList<String>();
+		expected.add("4-8");
+		expected.add("10-12");
+		expected.add("27-35");
+		assertEquals(expected, spans(searcher, text, Searcher.Mode.LEFTMOST_FIRST));
+		assertEquals(expected, spans(searcher, text, Searcher.Mode.ALL_OVERLAPPING));
+		assertEquals(3, searcher.count(text));
+	}
+
+	@Test
+	public void testOverlapping() throws Exception {
+		// ee4*
+		Searcher searcher = new Searcher(TestFiles.dfa("pattern-dfa3"));
+		List<String> expected = new ArrayList<String>();
+		expected.add("0-2");
+		expected.add("1-3");
+		expected.add("1-4");
+		assertEquals(expected, spans(searcher, "eee4", Searcher.Mode.ALL_OVERLAPPING));
+		expected.clear();
+		expected.add("0-2");
+		assertEquals(expected, spans(searcher, "eee4", Searcher.Mode.LEFTMOST_FIRST));
+	}
+
+	@Test
+	public void testStopsAtFirstEnd() throws Exception {
+		// aab*
+		Searcher searcher = new Searcher(TestFiles.dfa("dfa5"));
+		List<String> expected = new ArrayList<String>();
+		expected.add("0-2");
+		expected.add("2-4");
+		assertEquals(expected, spans(searcher, "aaaabx", Searcher.Mode.LEFTMOST_FIRST));
+	}
+
+	@Test
+	public void testLeftmostStartsBeforeEarliestEnd() {
+		// abc|b, where the match starting at 0 ends after the one at 1
+		Alphabet alphabet = new Alphabet();
+		alphabet.addSymbol('a');
+		alphabet.addSymbol('b');
+		alphabet.addSymbol('c');
+		DFABuilder builder = new DFABuilder(alphabet);
+		builder.addStates(4);
+		builder.setInitial(0).setFinal(3, true);
+		builder.addTransition(0, 'a', 1).addTransition(1, 'b', 2).addTransition(2, 'c', 3).addTransition(0, 'b', 3);
+		Searcher searcher = new Searcher(builder.build());
+		List<String> expected = new ArrayList<String>();
+		expected.add("0-3");
+		expected.add("3-4");
+		assertEquals(expected, spans(searcher, "abcb", Searcher.Mode.LEFTMOST_FIRST));
+	}
+
+	@Test
+	public void testStop() throws Exception {
+		Searcher searcher = new Searcher(TestFiles.dfa("pattern-dfa"));
+		final int[] calls = new int[1];
+		searcher.search("23 23 23", Searcher.Mode.LEFTMOST_FIRST, (start, end) -> ++calls[0] < 2);
+		assertEquals(2, calls[0]);
+	}
+
+	@Test
+	public void testRange() throws Exception {
+		Searcher searcher = new Searcher(TestFiles.dfa("pattern-dfa"));
+		List<String> found = new ArrayList<String>();
+		searcher.search("23 23 23", 2, 6, Searcher.Mode.LEFTMOST_FIRST, (start, end) -> found.add(start + "-" + end));
+		assertEquals(1, found.size());
+		assertEquals("3-5", found.get(0));
+	}
+
+	@Test
+	public void testAgreesWithBruteForce() {
+		for (int seed = 0; seed < 40; seed++) {
+			AutomatonGenerator generator = new AutomatonGenerator(seed, 'a', 'b');
+			CompiledDFA dfa = seed % 2 == 0 ? generator.sparse(6).compileDFA() : generator.random(5).compileDFA();
+			Searcher searcher = new Searcher(dfa);
+			String text = generator.input(12) + "c" + generator.input(6);
+			assertEquals(allSpans(dfa, text), spans(searcher, text, Searcher.Mode.ALL_OVERLAPPING));
+			assertEquals(leftmostSpans(dfa, text), spans(searcher, text, Searcher.Mode.LEFTMOST_FIRST));
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testLinearOnLongInput() {
+		// c|a*d
+		Alphabet alphabet = new Alphabet();
+		alphabet.addSymbol('a');
+		alphabet.addSymbol('c');
+		alphabet.addSymbol('d');
+		DFABuilder builder = new DFABuilder(alphabet);
+		builder.addStates(3);
+		builder.setInitial(0).setFinal(2, true);
+		builder.addTransition(0, 'c', 2).addTransition(0, 'a', 1).addTransition(1, 'a', 1);
+		builder.addTransition(0, 'd', 2).addTransition(1, 'd', 2);
+		Searcher searcher = new Searcher(builder.build());
+
+		int n = 1 << 20;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			sb.append('a');
+		}
+		sb.append('c');
+		final String text = sb.toString();
+		final long[] reads = new long[1];
+		CharSequence counted = new CharSequence() {
+			@Override
+			public int length() {
+				return text.length();
+			}
+
+			@Override
+			public char charAt(int index) {
+				reads[0]++;
+				return text.charAt(index);
+			}
+
+			@Override
+			public CharSequence subSequence(int start, int end) {
+				return text.subSequence(start, end);
+			}
+		};
+
+		List<String> found = new ArrayList<String>();
+		searcher.search(counted, Searcher.Mode.LEFTMOST_FIRST, (start, end) -> found.add(start + "-" + end));
+		assertEquals(1, found.size());
+		assertEquals(n + "-" + (n + 1), found.get(0));
+		// every character is read a bounded number of times
+		assertTrue(reads[0] <= 3L * text.length());
+	}
+
+	@Test(timeout = 20000)
+	public void testLargerPatterns() {
+		for (int seed = 0; seed < 6; seed++) {
+			AutomatonGenerator generator = new AutomatonGenerator(seed, 'a', 'b', 'c');
+			// both complete and partial 12 state patterns
+			for (CompiledDFA dfa : new CompiledDFA[] { generator.random(12).compileDFA(), generator.sparse(12).compileDFA() }) {
+				Searcher searcher = new Searcher(dfa);
+				String text = generator.input(40) + "x" + generator.input(30);
+				assertEquals(allSpans(dfa, text), spans(searcher, text, Searcher.Mode.ALL_OVERLAPPING));
+				assertEquals(leftmostSpans(dfa, text), spans(searcher, text, Searcher.Mode.LEFTMOST_FIRST));
+			}
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testManyChunks() throws Exception {
+		// 20*3, with matches across the chunk boundaries of the search
+		Searcher searcher = new Searcher(TestFiles.dfa("pattern-dfa"));
+		StringBuilder sb = new StringBuilder();
+		List<String> expected = new ArrayList<String>();
+		while (sb.length() < 100000) {
+			int start = sb.length();
+			sb.append("2000003");
+			expected.add(start + "-" + sb.length());
+			sb.append(start % 3 == 0 ? " " : "0");
+		}
+		assertEquals(expected, spans(searcher, sb.toString(), Searcher.Mode.LEFTMOST_FIRST));
+	}
+}
@@ -0,0 +1,78 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tp1.utils.TestFiles;
+
+public class StateCacheTest {
+
+	private DFA dfa;
+
+	@Before
+	public void setUp() throws Exception {
+		// aab*
+		dfa = TestFiles.dfa("dfa5");
+	}
+
+	@Test
+	public void testCachedWhileUnchanged() throws Exception {
+		assertEquals("q0", dfa.initialState().getName());
+		assertSame(dfa.initialState(), dfa.initialState());
+		StateSet finals = dfa.finalStates();
+		assertEquals(1, finals.size());
+
+		// every call returns a copy, changing it leaves the automaton alone
+		assertNotSame(finals, dfa.finalStates());
+		finals.addState("q1");
+		assertEquals(1, dfa.finalStates().size());
+	}
+
+	@Test
+	public void testFlagChanges() throws Exception {
+		dfa.getStates().belongTo("q1").setFinal(true);
+		assertEquals(2, dfa.finalStates().size());
+
+		dfa.getStates().belongTo("q0").setInitial(false);
+		assertNull(dfa.initialState());
+		dfa.getStates().belongTo("q3").setInitial(true);
+		assertEquals("q3", dfa.initialState().getName());
+	}
+
+	@Test
+	public void testSetChanges() throws Exception {
+		assertEquals(1, dfa.finalStates().size());
+		dfa.getStates().addState("q4", false, true);
+		assertEquals(2, dfa.finalStates().size());
+		dfa.getStates().deleteState("q2");
+		dfa.getStates().deleteState("q0");
+		assertEquals(1, dfa.finalStates().size());
+		assertEquals("q4", dfa.finalStates().get(0).getName());
+		assertNull(dfa.initialState());
+	}
+
+	@Test
+	public void testClonesAreNotWatched() throws Exception {
+		StateSet copy = dfa.getStates().cloneSS();
+		copy.belongTo("q0").setInitial(false);
+		copy.belongTo("q1").setFinal(true);
+		assertEquals("q0", dfa.initialState().getName());
+		assertEquals(1, dfa.finalStates().size());
+	}
+
+	@Test
+	public void testDeletedStatesAreNotWatched() throws Exception {
+		assertEquals(1, dfa.finalStates().size());
+		State q1 = dfa.getStates().belongTo("q1");
+		dfa.getStates().deleteState("q1");
+		int before = dfa.getStates().modCount();
+		q1.setFinal(true);
+		assertEquals(before, dfa.getStates().modCount());
+		assertEquals(1, dfa.finalStates().size());
+	}
+}
@@ -0,0 +1,162 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class StateSetTest {
+
+	@Test
+	public void testInsertionOrder() throws AutomatonException {
+		StateSet ss = new StateSet();
+		ss.addState("q2");
+		ss.addState("q0");
+		ss.addState("q1");
+
+		assertEquals("q2", ss.get(0).getName());
+		assertEquals("q1", ss.get(2).getName());
+		assertNull(ss.get(3));
+		assertEquals(1, ss.indexOf("q0"));
+		assertEquals(-1, ss.indexOf("q3"));
+	}
+
+	@Test
+	public void testDeleteKeepsIndex() throws AutomatonException {
+		StateSet ss = new StateSet();
+		ss.addState("q0");
+		ss.addState("q1");
+		ss.addState("q2");
+		ss.deleteState("q0");
+
+		assertEquals(2, ss.size());
+		assertNull(ss.belongTo("q0"));
+		// the last state takes the place of the deleted one
+		assertSame(ss.get(0), ss.belongTo("q2"));
+		assertEquals(1, ss.indexOf("q1"));
+		assertEquals(0, ss.indexOf("q2"));
+
+		ss.deleteState("q1");
+		assertEquals(1, ss.size());
+		assertEquals(0, ss.indexOf("q2"));
+	}
+
+	@Test
+	public void testContainsComparesFlags() throws AutomatonException {
+		StateSet ss = new StateSet();
+		ss.addState("q0", true, false);
+
+		assertTrue(ss.contains(new State("q0", true, false)));
+		assertFalse(ss.contains(new State("q0", false, false)));
+		assertTrue(ss.getSet().contains(new State("q0", true, false)));
+	}
+
+	@Test
+	public void testContainsSomeOf() throws AutomatonException {
+		StateSet ss = new StateSet();
+		ss.addState("q0");
+		ss.addState("q1");
+		StateSet other = new StateSet();
+		other.addState("q1");
+		other.addState("q5");
+
+		assertTrue(ss.containsSomeOf(other));
+		assertEquals(2, ss.size());
+
+		// disjoint sets share nothing and are left as they were
+		other.deleteState("q1");
+		assertFalse(ss.containsSomeOf(other));
+		assertEquals(2, ss.size());
+		assertEquals(1, other.size());
+		assertFalse(ss.containsSomeOf(new StateSet()));
+	}
+
+	@Test
+	public void testIteratorRemove() throws AutomatonException {
+		StateSet ss = new StateSet();
+		for (int i = 0; i < 6; i++) {
+			ss.addState("q" + i, false, i % 2 == 0);
+		}
+		int seen = 0;
+		Iterator<State> it = ss.iterator();
+		while (it.hasNext()) {
+			seen++;
+			if (it.next().isFinal())
+				it.remove();
+		}
+
+		assertEquals(6, seen);
+		assertEquals(3, ss.size());
+		for (State s : ss) {
+			assertFalse(s.isFinal());
+			assertEquals(s, ss.get(ss.indexOf(s.getName())));
+		}
+		assertThrows(IllegalStateException.class, ()-> {
+			Iterator<State> again = ss.iterator();
+			again.next();
+			again.remove();
+			again.remove();
+		});
+	}
+
+	@Test
+	public void testGetSetWritesThrough() throws AutomatonException {
+		StateSet ss = new StateSet();
+		State q0 = ss.addState("q0");
+		Set<State> view = ss.getSet();
+
+		assertTrue(view.add(new State("q1", false, true)));
+		assertFalse(view.add(new State("q0", true, false)));
+		assertEquals(2, ss.size());
+		assertTrue(ss.belongTo("q1").isFinal());
+
+		assertTrue(view.remove(q0));
+		assertNull(ss.belongTo("q0"));
+		view.clear();
+		assertEquals(0, ss.size());
+		assertThrows(UnsupportedOperationException.class, ()-> {
+			StateSet.empty().getSet().add(q0);
+		});
+	}
+
+	@Test(timeout = 4000)
+	public void testManyStates() throws AutomatonException {
+		StateSet ss = new StateSet();
+		for (int i = 0; i < 50000; i++) {
+			ss.addState("q" + i);
+		}
+		for (int i = 0; i < 50000; i++) {
+			assertEquals(i, ss.indexOf("q" + i));
+		}
+	}
+
+	@Test
+	public void testBitSet() throws AutomatonException {
+		StateSet ss = new StateSet();
+		ss.addState("q0");
+		ss.addState("q1");
+		ss.addState("q2");
+		StateBitSet a = new StateBitSet(ss);
+		StateBitSet b = new StateBitSet(ss);
+
+		assertTrue(a.add("q2"));
+		assertFalse(a.add("q2"));
+		b.add("q0");
+		a.union(b);
+
+		assertEquals(2, a.size());
+		assertTrue(a.contains("q0"));
+		assertFalse(a.contains("q1"));
+		assertEquals("q0", a.iterator().next().getName());
+		assertThrows(AutomatonException.class, ()-> {
+			a.add("q7");
+		});
+	}
+}
@@ -0,0 +1,71 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import tp1.utils.DotReader;
+import tp1.utils.TestFiles;
+
+public class SuccessorsTest {
+
+	@Test
+	public void testMissingArcs() throws Exception {
+		// ab | aba*, partial
+		DotReader dotReader = TestFiles.read("nfa1");
+		NFA nfa = new NFA(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+		State q0 = nfa.initialState();
+		assertTrue(nfa.successors(q0, 'a').size() > 0);
+		assertSame(StateSet.empty(), nfa.successors(q0, 'b'));
+		assertSame(StateSet.empty(), nfa.successors(q0, null));
+		assertSame(StateSet.empty(), nfa.successors(q0, 'z'));
+		assertSame(StateSet.empty(), nfa.successors(new State("x", false, false), 'a'));
+	}
+
+	@Test
+	public void testEmptyIsReadOnly() throws Exception {
+		StateSet empty = StateSet.empty();
+		assertEquals(0, empty.size());
+		assertThrows(UnsupportedOperationException.class, () -> empty.addState("q0"));
+		assertThrows(UnsupportedOperationException.class, () -> empty.addState(new State("q0", false, false)));
+		assertThrows(UnsupportedOperationException.class, () -> empty.union(new StateSet()));
+		assertEquals(0, empty.size());
+	}
+
+	@Test
+	public void testCompiledArcs() throws Exception {
+		// (casa)+
+		DotReader dotReader = TestFiles.read("nfalambda2");
+		NFALambda nfa = new NFALambda(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+		CompiledNFA compiled = nfa.compile();
+		for (int s = 0; s < compiled.stateCount(); s++) {
+			State state = nfa.getStates().belongTo(compiled.stateName(s));
+			for (char c : new char[] { 'a', 'c', 's', 'z' }) {
+				Set<String> expected = new HashSet<String>();
+				for (State t : nfa.successors(state, c)) {
+					expected.add(t.getName());
+				}
+				Set<String> actual = new HashSet<String>();
+				for (int i = compiled.arcStart(s, c), end = compiled.arcEnd(s, c); i < end; i++) {
+					actual.add(compiled.stateName(compiled.arcTarget(i)));
+				}
+				assertEquals(expected, actual);
+			}
+			Set<String> expected = new HashSet<String>();
+			for (State t : nfa.successors(state, null)) {
+				expected.add(t.getName());
+			}
+			Set<String> actual = new HashSet<String>();
+			for (int i = compiled.lambdaStart(s), end = compiled.lambdaEnd(s); i < end; i++) {
+				actual.add(compiled.stateName(compiled.lambdaTarget(i)));
+			}
+			assertEquals(expected, actual);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package tp1.automatas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tp1.utils.AutomatonGenerator;
+
+public class SymbolClassesTest {
+
+	private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+	private static final String DIGITS = "0123456789";
+
+	//identifiers: a letter followed by letters and digits
+	private static CompiledDFA identifiers;
+
+	@BeforeClass
+	public static void setUpBeforeClass() {
+		Set<Character> symbols = new HashSet<Character>();
+		for (char c : (LETTERS + DIGITS).toCharArray()) {
+			symbols.add(c);
+		}
+		DFABuilder builder = new DFABuilder(new Alphabet(symbols));
+		int start = builder.addState();
+		int rest = builder.addState();
+		builder.setInitial(start).setFinal(rest, true);
+		for (char c : LETTERS.toCharArray()) {
+			builder.addTransition(start, c, rest).addTransition(rest, c, rest);
+		}
+		for (char c : DIGITS.toCharArray()) {
+			builder.addTransition(rest, c, rest);
+		}
+		identifiers = builder.build();
+	}
+
+	private static String input(Random random, int length) {
+		String symbols = LETTERS + DIGITS;
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			input.append(symbols.charAt(random.nextInt(symbols.length())));
+		}
+		return input.toString();
+	}
+
+	@Test
+	public void testMergesColumns() {
+		assertEquals(36, identifiers.width);
+		CompiledDFA merged = identifiers.mergeSymbols();
+		assertEquals(2, merged.width);
+		assertEquals(merged.symbols.column('a'), merged.symbols.column('z'));
+		assertEquals(merged.symbols.column('0'), merged.symbols.column('9'));
+		assertEquals(identifiers, merged);
+		assertEquals(identifiers.hashCode(), merged.hashCode());
+		assertSame(merged, merged.mergeSymbols());
+	}
+
+	@Test
+	public void testSameLanguage() {
+		CompiledDFA merged = identifiers.mergeSymbols();
+		CompiledDFA minimal = identifiers.minimize();
+		assertEquals(2, minimal.width);
+		Random random = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			String input = input(random, i % 12);
+			assertEquals(identifiers.accepts(input), merged.accepts(input));
+			assertEquals(identifiers.accepts(input), minimal.accepts(input));
+		}
+	}
+
+	@Test
+	public void testOperationsOnMergedTables() throws Exception {
+		CompiledDFA merged = identifiers.mergeSymbols();
+		assertEquals(identifiers.minimize(), merged.minimize());
+		assertEquals(merged, merged.toDFA().compile());
+		// product with an automaton over {a, b}
+		CompiledDFA ab = new AutomatonGenerator(0).random(4).compileDFA();
+		assertEquals(identifiers.intersection(ab), merged.intersection(ab));
+		assertEquals(identifiers.union(ab).minimize(), merged.union(ab).minimize());
+	}
+
+	@Test
+	public void testRandomAutomata() {
+		for (int seed = 0; seed < 20; seed++) {
+			AutomatonGenerator generator = new AutomatonGenerator(seed, 'a', 'b', 'c', 'd');
+			CompiledDFA dfa = generator.random(6).compileDFA();
+			CompiledDFA merged = dfa.mergeSymbols();
+			assertEquals(dfa, merged);
+			for (int length = 0; length < 30; length++) {
+				String input = generator.input(length);
+				assertEquals(dfa.accepts(input), merged.accepts(input));
+			}
+		}
+	}
+
+	@Test
+	public void testColumnsOfWideAlphabets() {
+		// 300 columns no longer fit in a byte
+		for (int width : new int[] { 3, 255, 256, 300 }) {
+			char[] symbols = new char[width];
+			for (int i = 0; i < width; i++) {
+				symbols[i] = (char) ('a' + 2 * i);
+			}
+			SymbolMap map = SymbolMap.identity(symbols);
+			for (int i = 0; i < width; i++) {
+				assertEquals(i, map.column(symbols[i]));
+				assertEquals(i, map.columnAt(i));
+				assertEquals(-1, map.column((char) (symbols[i] + 1)));
+			}
+			assertEquals(-1, map.column((char) ('a' - 1)));
+		}
+	}
+}
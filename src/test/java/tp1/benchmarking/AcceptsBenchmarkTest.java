@@ -0,0 +1,131 @@
+package tp1.benchmarking;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import tp1.automatas.DFA;
+import tp1.automatas.NFA;
+import tp1.automatas.NFALambda;
+
+/**
+ * Throughput of accepts on every kind of automaton, over the bundled
+ * automata and over generated ones of increasing size.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AcceptsBenchmarkTest {
+
+	@State(Scope.Benchmark)
+	public static class DFAState {
+
+		@Param({ "dfa2", "dfa4", "dfa5", "random-64", "random-1024", "random-16384" })
+		public String automaton;
+
+		@Param({ "64", "4096" })
+		public int length;
+
+		DFA dfa;
+		String input;
+
+		@Setup
+		public void setUp() throws Exception {
+			dfa = BenchmarkAutomata.dfa(automaton, 1);
+			input = BenchmarkAutomata.input(dfa.getAlphabet(), length, 2);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class NFAState {
+
+		@Param({ "nfa1", "nfa2", "dense-64", "dense-1024", "dense-16384" })
+		public String automaton;
+
+		@Param({ "64", "4096" })
+		public int length;
+
+		NFA nfa;
+		String input;
+
+		@Setup
+		public void setUp() throws Exception {
+			nfa = BenchmarkAutomata.nfa(automaton, 1);
+			input = BenchmarkAutomata.input(nfa.getAlphabet(), length, 2);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class NFALambdaState {
+
+		@Param({ "nfalambda1", "nfalambda2", "lambda-64", "lambda-1024", "lambda-16384", "chain-1024",
+				"cycle-1024" })
+		public String automaton;
+
+		@Param({ "64", "4096" })
+		public int length;
+
+		NFALambda nfaLambda;
+		String input;
+
+		@Setup
+		public void setUp() throws Exception {
+			nfaLambda = BenchmarkAutomata.nfaLambda(automaton, 1);
+			input = BenchmarkAutomata.input(nfaLambda.getAlphabet(), length, 2);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BatchState {
+
+		@Param({ "dfa4", "random-1024" })
+		public String automaton;
+
+		@Param({ "100000" })
+		public int size;
+
+		DFA dfa;
+		List<String> inputs;
+
+		@Setup
+		public void setUp() throws Exception {
+			dfa = BenchmarkAutomata.dfa(automaton, 1);
+			inputs = new ArrayList<String>(size);
+			for (int i = 0; i < size; i++) {
+				inputs.add(BenchmarkAutomata.input(dfa.getAlphabet(), 32, i));
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean dfaAccepts(DFAState state) throws Exception {
+		return state.dfa.accepts(state.input);
+	}
+
+	@Benchmark
+	public boolean nfaAccepts(NFAState state) throws Exception {
+		return state.nfa.accepts(state.input);
+	}
+
+	@Benchmark
+	public boolean nfaLambdaAccepts(NFALambdaState state) throws Exception {
+		return state.nfaLambda.accepts(state.input);
+	}
+
+	@Benchmark
+	public BitSet dfaAcceptsAll(BatchState state) {
+		return state.dfa.acceptsAll(state.inputs);
+	}
+}
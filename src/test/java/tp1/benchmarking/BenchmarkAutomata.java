@@ -0,0 +1,86 @@
+package tp1.benchmarking;
+
+import java.util.Arrays;
+
+import tp1.automatas.Alphabet;
+import tp1.automatas.DFA;
+import tp1.automatas.NFA;
+import tp1.automatas.NFALambda;
+import tp1.utils.AutomatonGenerator;
+import tp1.utils.GeneratedAutomaton;
+import tp1.utils.TestFiles;
+
+/**
+ * Automata and inputs shared by the benchmarks. An automaton is named
+ * either after one of the bundled .dot files (e.g. "dfa4") or as a family
+ * of AutomatonGenerator followed by its number of states (e.g.
+ * "random-1024", "nth-12", "cycle-4096"). Generated automata and inputs
+ * are seeded, so every run measures the same work.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+final class BenchmarkAutomata {
+
+	private BenchmarkAutomata() {
+	}
+
+	static DFA dfa(String name, long seed) throws Exception {
+		GeneratedAutomaton generated = generate(name, seed);
+		if (generated != null)
+			return generated.toDFA();
+		return TestFiles.dfa(name);
+	}
+
+	static NFA nfa(String name, long seed) throws Exception {
+		GeneratedAutomaton generated = generate(name, seed);
+		if (generated != null)
+			return generated.toNFA();
+		return TestFiles.nfa(name);
+	}
+
+	static NFALambda nfaLambda(String name, long seed) throws Exception {
+		GeneratedAutomaton generated = generate(name, seed);
+		if (generated != null)
+			return generated.toNFALambda();
+		return TestFiles.nfaLambda(name);
+	}
+
+	/**
+	 * @return a string of the given length over the symbols of alphabet.
+	 */
+	static String input(Alphabet alphabet, int length, long seed) {
+		char[] symbols = new char[alphabet.getSet().size()];
+		int n = 0;
+		for (Character c : alphabet) {
+			if (c != null)
+				symbols[n++] = c;
+		}
+		return new AutomatonGenerator(seed, Arrays.copyOf(symbols, n)).input(length);
+	}
+
+	// null when name is not a generated family
+	private static GeneratedAutomaton generate(String name, long seed) {
+		int dash = name.lastIndexOf('-');
+		if (dash < 0 || !name.substring(dash + 1).matches("[0-9]+"))
+			return null;
+		String family = name.substring(0, dash);
+		int n = Integer.parseInt(name.substring(dash + 1));
+		AutomatonGenerator generator = new AutomatonGenerator(seed);
+		if (family.equals("random"))
+			return generator.random(n);
+		if (family.equals("sparse"))
+			return generator.sparse(n);
+		if (family.equals("dense"))
+			return generator.dense(n, 2);
+		if (family.equals("lambda"))
+			return generator.randomLambda(n, 2);
+		if (family.equals("nth"))
+			return generator.nthFromLast(n);
+		if (family.equals("chain"))
+			return generator.lambdaChain(n);
+		if (family.equals("cycle"))
+			return generator.lambdaCycle(n);
+		return null;
+	}
+}
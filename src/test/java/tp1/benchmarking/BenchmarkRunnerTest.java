@@ -0,0 +1,43 @@
+package tp1.benchmarking;
+
+import org.junit.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark of this package with the GC profiler, which adds
+ * the allocation rate (gc.alloc.rate.norm, bytes per operation) next to
+ * the throughput of each one. Results are also written as JSON to
+ * target/jmh-result.json so that runs can be compared.
+ *
+ * Run with: mvn -P benchmark-test test -Dtest=BenchmarkRunnerTest
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public class BenchmarkRunnerTest {
+
+	@Test
+	public void launchBenchmark() throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(BenchmarkRunnerTest.class.getPackage().getName() + ".*BenchmarkTest")
+				.exclude(BenchmarkRunnerTest.class.getName())
+				.forks(1)
+				.warmupIterations(3)
+				.measurementIterations(5)
+				.addProfiler(GCProfiler.class)
+				.shouldFailOnError(true)
+				.resultFormat(ResultFormatType.JSON)
+				.result("target/jmh-result.json")
+				.build();
+		new Runner(options).run();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new BenchmarkRunnerTest().launchBenchmark();
+	}
+}
@@ -0,0 +1,79 @@
+package tp1.benchmarking;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import tp1.automatas.DFA;
+import tp1.automatas.NFALambda;
+
+/**
+ * Throughput of the constructions that build a new automaton: toDFA,
+ * union, intersection and complement.
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConstructionBenchmarkTest {
+
+	@State(Scope.Benchmark)
+	public static class OperandsState {
+
+		// the two operands, separated by a comma
+		@Param({ "dfa2,dfa3", "dfa4,dfa5", "random-16,random-16", "random-128,random-128" })
+		public String operands;
+
+		DFA left;
+		DFA right;
+
+		@Setup
+		public void setUp() throws Exception {
+			String[] names = operands.split(",");
+			left = BenchmarkAutomata.dfa(names[0], 1);
+			right = BenchmarkAutomata.dfa(names[1], 2);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class NFALambdaState {
+
+		@Param({ "nfalambda1", "nfalambda2", "lambda-8", "lambda-32", "lambda-128", "nth-10" })
+		public String automaton;
+
+		NFALambda nfaLambda;
+
+		@Setup
+		public void setUp() throws Exception {
+			nfaLambda = BenchmarkAutomata.nfaLambda(automaton, 1);
+		}
+	}
+
+	@Benchmark
+	public DFA toDFA(NFALambdaState state) throws Exception {
+		return state.nfaLambda.toDFA();
+	}
+
+	@Benchmark
+	public DFA union(OperandsState state) throws Exception {
+		return state.left.union(state.right);
+	}
+
+	@Benchmark
+	public DFA intersection(OperandsState state) throws Exception {
+		return state.left.intersection(state.right);
+	}
+
+	@Benchmark
+	public DFA complement(OperandsState state) throws Exception {
+		return state.left.complement();
+	}
+}
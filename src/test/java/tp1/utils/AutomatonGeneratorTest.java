@@ -0,0 +1,108 @@
+package tp1.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import tp1.automatas.CompiledDFA;
+import tp1.automatas.CompiledNFA;
+import tp1.automatas.DFA;
+import tp1.automatas.NFA;
+import tp1.automatas.NFALambda;
+
+public class AutomatonGeneratorTest {
+
+	@Test
+	public void testSameSeedSameAutomaton() throws Exception {
+		CompiledDFA first = new AutomatonGenerator(7).random(50).compileDFA();
+		CompiledDFA second = new AutomatonGenerator(7).random(50).compileDFA();
+		assertEquals(first, second);
+	}
+
+	@Test
+	public void testRandomIsDeterministic() throws Exception {
+		GeneratedAutomaton random = new AutomatonGenerator(1).random(10);
+		assertEquals(10, random.stateCount());
+		assertEquals(20, random.arcCount());
+		DFA dfa = random.toDFA();
+		assertTrue(dfa.repOk());
+		String input = new AutomatonGenerator(2).input(100);
+		assertEquals(dfa.accepts(input), random.compileDFA().accepts(input));
+	}
+
+	@Test
+	public void testSparse() throws Exception {
+		GeneratedAutomaton sparse = new AutomatonGenerator(1).sparse(100);
+		assertEquals(100, sparse.arcCount());
+		assertTrue(sparse.toDFA().repOk());
+	}
+
+	@Test
+	public void testDenseAgreesWithCompiled() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(3, 'x', 'y', 'z');
+		GeneratedAutomaton dense = generator.dense(30, 3);
+		NFA nfa = dense.toNFA();
+		CompiledNFA compiled = dense.compileNFA();
+		for (int i = 0; i < 20; i++) {
+			String input = generator.input(i);
+			assertEquals(nfa.accepts(input), compiled.accepts(input));
+		}
+	}
+
+	@Test
+	public void testRandomLambdaAgreesWithDeterminized() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(4);
+		NFALambda nfaLambda = generator.randomLambda(20, 2).toNFALambda();
+		DFA dfa = nfaLambda.toDFA();
+		for (int i = 0; i < 20; i++) {
+			String input = generator.input(i);
+			assertEquals(nfaLambda.accepts(input), dfa.accepts(input));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonDeterministicDFA() throws Exception {
+		new AutomatonGenerator(1).dense(10, 2).toDFA();
+	}
+
+	@Test
+	public void testNthFromLastBlowup() throws Exception {
+		GeneratedAutomaton nth = new AutomatonGenerator(1).nthFromLast(10);
+		assertEquals(11, nth.stateCount());
+		assertTrue(nth.toNFA().accepts("babbbbbbbbb"));
+		assertFalse(nth.toNFA().accepts("bbabbbbbbbb"));
+		// 2^10 reachable states plus the dead state, all distinguishable
+		assertEquals(1025, nth.compileNFA().determinize().minimize().stateCount());
+	}
+
+	@Test
+	public void testLambdaCycle() throws Exception {
+		NFALambda cycle = new AutomatonGenerator(1).lambdaCycle(100).toNFALambda();
+		assertTrue(cycle.accepts(""));
+		assertTrue(cycle.accepts("abba"));
+		// the whole cycle is a single subset that loops on every symbol
+		assertEquals(1, cycle.toDFA().getStates().size());
+	}
+
+	@Test
+	public void testLargeRandomDFA() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(5);
+		CompiledDFA dfa = generator.random(1000000).compileDFA();
+		assertEquals(1000001, dfa.stateCount());
+		String input = generator.input(100000);
+		int s = dfa.initialState();
+		for (int i = 0; i < input.length(); i++) {
+			s = dfa.step(s, input.charAt(i));
+		}
+		assertEquals(dfa.isAccepting(s), dfa.accepts(input));
+	}
+
+	@Test
+	public void testLargeLambdaChain() throws Exception {
+		AutomatonGenerator generator = new AutomatonGenerator(6);
+		CompiledNFA chain = generator.lambdaChain(1000000).compileNFA();
+		assertTrue(chain.accepts(generator.input(50)));
+	}
+}
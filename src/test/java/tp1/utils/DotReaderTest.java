@@ -1,12 +1,26 @@
 package tp1.utils;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import tp1.automatas.CompiledDFA;
+import tp1.automatas.CompiledNFA;
+import tp1.automatas.DFA;
+import tp1.automatas.NFA;
 import tp1.automatas.State;
 import tp1.automatas.StateSet;
 
@@ -75,4 +89,86 @@ public class DotReaderTest {
 		assertTrue(arcs.contains(arc));
 	}
 
+	@Test
+	public void testWhitespaceAndLineEnds() throws Exception {
+		DotReader reader = new DotReader(new StringReader(
+				"digraph {\r\n\tinic -> q 0 ;\r\n q0->q1 [ label = \"a\" ];\r\nq1\t[shape=doublecircle];\r\n}"));
+		reader.parse();
+		assertEquals(2, reader.getNodes().size());
+		assertTrue(reader.getNodes().belongTo("q0").isInitial());
+		assertTrue(reader.getNodes().belongTo("q1").isFinal());
+		assertEquals(1, reader.getArcs().size());
+	}
+
+	@Test
+	public void testIgnoredLines() throws Exception {
+		DotReader reader = new DotReader(new StringReader(
+				"inic[shape=point];\nq0->q1;\nq0->q1[label=\"a\"]\nq0->q1[color=blue];\nq0->[label=\"a\"];\nq0[shape=circle];"));
+		reader.parse();
+		assertEquals(0, reader.getNodes().size());
+		assertEquals(0, reader.getArcs().size());
+	}
+
+	@Test
+	public void testParseOnce() throws Exception {
+		DotReader reader = new DotReader("src/test/java/tp1/dfa5");
+		reader.parse();
+		assertThrows(Exception.class, () -> reader.parse());
+	}
+
+	@Test
+	public void testParseDFA() throws Exception {
+		DotReader reader = new DotReader("src/test/java/tp1/dfa4");
+		reader.parse();
+		DFA dfa = new DFA(reader.getNodes(), reader.getSymbols(), reader.getArcs());
+		CompiledDFA compiled = new DotReader("src/test/java/tp1/dfa4").parseDFA();
+		assertEquals(dfa.compile(), compiled);
+		assertEquals(dfa.compile().stateName(3), compiled.stateName(3));
+	}
+
+	@Test
+	public void testParseNFA() throws Exception {
+		// (casa)+
+		CompiledNFA compiled = new DotReader("src/test/java/tp1/nfalambda2").parseNFA();
+		assertTrue(compiled.accepts("casacasa"));
+		assertFalse(compiled.accepts("casac"));
+		assertThrows(IllegalArgumentException.class, () -> new DotReader("src/test/java/tp1/nfalambda2").parseDFA());
+
+		DotReader reader = new DotReader("src/test/java/tp1/nfa1");
+		reader.parse();
+		NFA nfa = new NFA(reader.getNodes(), reader.getSymbols(), reader.getArcs());
+		compiled = new DotReader("src/test/java/tp1/nfa1").parseNFA();
+		for (String input : new String[] { "", "a", "ab", "aba", "abaaa", "abb" }) {
+			assertEquals(nfa.accepts(input), compiled.accepts(input));
+		}
+	}
+
+	@Test
+	public void testConcurrentReaders() throws Exception {
+		String[] files = { "dfa2", "dfa3", "dfa4", "dfa5", "nfa1", "nfalambda2" };
+		ExecutorService executor = Executors.newFixedThreadPool(files.length);
+		try {
+			for (int round = 0; round < 20; round++) {
+				List<Future<DotReader>> parsed = new ArrayList<Future<DotReader>>();
+				for (String file : files) {
+					parsed.add(executor.submit(new Callable<DotReader>() {
+						@Override
+						public DotReader call() throws Exception {
+							DotReader reader = new DotReader("src/test/java/tp1/" + file);
+							reader.parse();
+							return reader;
+						}
+					}));
+				}
+				for (int i = 0; i < files.length; i++) {
+					DotReader reader = new DotReader("src/test/java/tp1/" + files[i]);
+					reader.parse();
+					assertEquals(reader.getNodes().size(), parsed.get(i).get().getNodes().size());
+					assertEquals(reader.getArcs(), parsed.get(i).get().getArcs());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
 }
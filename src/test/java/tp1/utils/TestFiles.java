@@ -0,0 +1,42 @@
+package tp1.utils;
+
+import tp1.automatas.DFA;
+import tp1.automatas.NFA;
+import tp1.automatas.NFALambda;
+
+/**
+ * Reads the .dot files bundled with the tests, named without folder nor
+ * extension (e.g. "dfa4").
+ *
+ * @author Fernandez, Camilo
+ * @author Manzetti, Mariano
+ */
+public final class TestFiles {
+
+	private TestFiles() {
+	}
+
+	/**
+	 * @return a reader that already parsed the file.
+	 */
+	public static DotReader read(String name) throws Exception {
+		DotReader dotReader = new DotReader("src/test/java/tp1/" + name);
+		dotReader.parse();
+		return dotReader;
+	}
+
+	public static DFA dfa(String name) throws Exception {
+		DotReader dotReader = read(name);
+		return new DFA(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+	}
+
+	public static NFA nfa(String name) throws Exception {
+		DotReader dotReader = read(name);
+		return new NFA(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+	}
+
+	public static NFALambda nfaLambda(String name) throws Exception {
+		DotReader dotReader = read(name);
+		return new NFALambda(dotReader.getNodes(), dotReader.getSymbols(), dotReader.getArcs());
+	}
+}